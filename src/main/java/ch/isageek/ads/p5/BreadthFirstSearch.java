@@ -0,0 +1,397 @@
+package ch.isageek.ads.p5;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+
+/**
+ * Breadth first search over the dense node ids of a graph, see {@link Graph#getNodeId(String)}.
+ * The state of a search is kept in arrays indexed by node id which are reused by the following searches:
+ * the queue, the visited bitset, the cost and the predecessor of every reached node.
+ * The cost of a node is the cost of its predecessor plus the cost of the edge to it.
+ *
+ * The queue has room for every node, as a node is only added once it never wraps around. After a search it contains
+ * the reached nodes in the order they were visited, which is what a {@link Result} reads from.
+ *
+ * With {@link #setDirectionOptimizing(boolean)} the search works level by level and switches between top down and
+ * bottom up steps (Beamer et al., "Direction-Optimizing Breadth-First Search"). A bottom up step checks every node not
+ * reached yet for an incoming edge from the frontier and stops at the first one, which is much cheaper than expanding
+ * a frontier holding a large part of the graph. It needs a graph with {@link Graph#hasIncomingIndex()}.
+ * With weighted edges the cost of a node depends on the predecessor chosen, which can differ between the directions.
+ *
+ * With {@link #setParallel(boolean)} big levels are split into chunks which are expanded top down in parallel on the
+ * common ForkJoinPool. A node is claimed with a compare and swap on a shared bitset, so only one thread sets its cost
+ * and predecessor. Every chunk collects the nodes it claimed in its own buffer, the buffers are appended to the queue
+ * in chunk order to form the next level. The predecessor of a node is the one of the chunk which claimed it first,
+ * the graph must not be changed during a parallel search.
+ */
+public class BreadthFirstSearch {
+
+    // Bottom up once the frontier has more than 1/ALPHA of the unexplored edges,
+    // top down again once the frontier has less than 1/BETA of the nodes
+    private final static int ALPHA = 14;
+    private final static int BETA = 24;
+    // Minimum number of nodes of a level to expand it in parallel, and of a chunk
+    private final static int PARALLEL_LEVEL = 1 << 10;
+    private final static int PARALLEL_CHUNK = 1 << 8;
+
+    private final Graph graph;
+    private boolean directionOptimizing;
+    private boolean parallel;
+
+    private int[] queue = new int[0];
+    private int head;
+    private int tail;
+    private long[] visited = new long[0];
+    private int[] cost = new int[0];
+    private int[] predecessor = new int[0];
+    // The nodes of the current level during a bottom up step
+    private long[] frontier = new long[0];
+    private int bottomUpLevels;
+    // Nodes claimed by a parallel search
+    private AtomicLongArray claimed = new AtomicLongArray(0);
+    // Counts the searches, a result is only valid until the next search
+    private int generation;
+
+    private final IntIntConsumer visitor = this::visit;
+    private int current;
+    private final IntIntPredicate parentFinder = this::findParent;
+    private int candidate;
+
+    public BreadthFirstSearch(Graph graph) {
+        this.graph = graph;
+    }
+
+    /**
+     * @param directionOptimizing true to switch to bottom up steps for big frontiers, only used if the graph
+     *                            {@link Graph#hasIncomingIndex() has an index of incoming edges}
+     */
+    public void setDirectionOptimizing(boolean directionOptimizing) {
+        this.directionOptimizing = directionOptimizing;
+    }
+
+    public boolean isDirectionOptimizing() {
+        return directionOptimizing;
+    }
+
+    /**
+     * @param parallel true to expand big levels in parallel, a parallel search is always top down
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    /**
+     * @param start the label of the start node
+     * @return a view of the result which is valid until the next search
+     * @throws NoSuchElementException if the start node does not exist
+     */
+    public Result search(String start) throws NoSuchElementException {
+        return this.search(this.graph.getNodeId(start));
+    }
+
+    /**
+     * @param start the id of the start node
+     * @return a view of the result which is valid until the next search
+     * @throws NoSuchElementException if the start node does not exist
+     */
+    public Result search(int start) throws NoSuchElementException {
+        this.graph.getLabel(start);
+        this.reset();
+        this.reach(start, 0, -1);
+        if (this.parallel) {
+            this.searchParallel();
+        } else if (this.directionOptimizing && this.graph.hasIncomingIndex()) {
+            this.searchDirectionOptimizing();
+        } else {
+            while (this.head < this.tail) {
+                this.topDown();
+            }
+        }
+        return new Result(this.generation);
+    }
+
+    private void searchDirectionOptimizing() {
+        final int bound = this.graph.getNodeIdBound();
+        long frontierEdges = this.graph.degree(this.queue[0]);
+        long unexploredEdges = this.graph.getNumberOfEdges() - frontierEdges;
+        boolean bottomUp = false;
+        while (this.head < this.tail) {
+            final int levelEnd = this.tail;
+            if (!bottomUp && frontierEdges > unexploredEdges / ALPHA) {
+                bottomUp = true;
+            } else if (bottomUp && levelEnd - this.head < bound / BETA) {
+                bottomUp = false;
+            }
+            if (bottomUp) {
+                this.bottomUp(bound, levelEnd);
+                this.bottomUpLevels++;
+            } else {
+                while (this.head < levelEnd) {
+                    this.topDown();
+                }
+            }
+            frontierEdges = 0;
+            for (int i = levelEnd; i < this.tail; i++) {
+                frontierEdges += this.graph.degree(this.queue[i]);
+            }
+            unexploredEdges -= frontierEdges;
+        }
+    }
+
+    private void searchParallel() {
+        this.claim(this.queue[0]);
+        while (this.head < this.tail) {
+            final int levelStart = this.head;
+            final int levelEnd = this.tail;
+            final int size = levelEnd - levelStart;
+            final int chunks = size < PARALLEL_LEVEL ? 1
+                    : Math.min(size / PARALLEL_CHUNK, 4 * Runtime.getRuntime().availableProcessors());
+            final Expansion[] expansions = IntStream.range(0, chunks).parallel()
+                    .mapToObj(chunk -> new Expansion(levelStart + (int)((long) size * chunk / chunks),
+                            levelStart + (int)((long) size * (chunk + 1) / chunks)).expand())
+                    .toArray(Expansion[]::new);
+            for (Expansion expansion : expansions) {
+                System.arraycopy(expansion.reached, 0, this.queue, this.tail, expansion.count);
+                this.tail += expansion.count;
+            }
+            this.head = levelEnd;
+        }
+        // Results read the visited bitset, the claimed one is cleared for the next parallel search
+        for (int i = 0; i < this.tail; i++) {
+            this.visited[this.queue[i] >>> 6] |= 1L << this.queue[i];
+            this.claimed.set(this.queue[i] >>> 6, 0);
+        }
+    }
+
+    /**
+     * @return true if the calling thread claimed the node, false if it was claimed before
+     */
+    private boolean claim(int id) {
+        final long bit = 1L << id;
+        while (true) {
+            final long word = this.claimed.get(id >>> 6);
+            if ((word & bit) != 0) {
+                return false;
+            }
+            if (this.claimed.compareAndSet(id >>> 6, word, word | bit)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Expands the nodes of a chunk of a level into the nodes it claimed
+     */
+    private class Expansion implements IntIntConsumer {
+        final int start;
+        final int end;
+        int[] reached = new int[PARALLEL_CHUNK];
+        int count;
+        int node;
+
+        Expansion(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        Expansion expand() {
+            for (int i = this.start; i < this.end; i++) {
+                this.node = queue[i];
+                graph.forEachNeighbor(this.node, this);
+            }
+            return this;
+        }
+
+        @Override
+        public void accept(int target, int edgeCost) {
+            if (claim(target)) {
+                cost[target] = cost[this.node] + edgeCost;
+                predecessor[target] = this.node;
+                if (this.count == this.reached.length) {
+                    this.reached = Arrays.copyOf(this.reached, this.count * 2);
+                }
+                this.reached[this.count++] = target;
+            }
+        }
+    }
+
+    private void topDown() {
+        this.current = this.queue[this.head++];
+        this.graph.forEachNeighbor(this.current, this.visitor);
+    }
+
+    private void bottomUp(int bound, int levelEnd) {
+        for (int i = this.head; i < levelEnd; i++) {
+            this.frontier[this.queue[i] >>> 6] |= 1L << this.queue[i];
+        }
+        for (int id = 0; id < bound; id++) {
+            final long word = this.visited[id >>> 6];
+            if (word == -1L) {
+                // Every node of the word is reached
+                id |= 63;
+            } else if ((word & (1L << id)) == 0) {
+                this.candidate = id;
+                this.graph.anyIncoming(id, this.parentFinder);
+            }
+        }
+        for (int i = this.head; i < levelEnd; i++) {
+            this.frontier[this.queue[i] >>> 6] = 0;
+        }
+        this.head = levelEnd;
+    }
+
+    private boolean findParent(int source, int edgeCost) {
+        if ((this.frontier[source >>> 6] & (1L << source)) == 0) {
+            return false;
+        }
+        this.reach(this.candidate, this.cost[source] + edgeCost, source);
+        return true;
+    }
+
+    private void visit(int target, int edgeCost) {
+        if ((this.visited[target >>> 6] & (1L << target)) == 0) {
+            this.reach(target, this.cost[this.current] + edgeCost, this.current);
+        }
+    }
+
+    private void reach(int id, int cost, int predecessor) {
+        this.visited[id >>> 6] |= 1L << id;
+        this.cost[id] = cost;
+        this.predecessor[id] = predecessor;
+        this.queue[this.tail++] = id;
+    }
+
+    private void reset() {
+        // Only the words of the nodes reached by the last search are cleared
+        for (int i = 0; i < this.tail; i++) {
+            this.visited[this.queue[i] >>> 6] = 0;
+        }
+        final int bound = this.graph.getNodeIdBound();
+        if (this.queue.length < bound) {
+            this.queue = new int[bound];
+            this.cost = new int[bound];
+            this.predecessor = new int[bound];
+            this.visited = Arrays.copyOf(this.visited, (bound + 63) >>> 6);
+            this.frontier = new long[this.visited.length];
+        }
+        if (this.parallel && this.claimed.length() < this.visited.length) {
+            this.claimed = new AtomicLongArray(this.visited.length);
+        }
+        this.head = 0;
+        this.tail = 0;
+        this.bottomUpLevels = 0;
+        this.generation++;
+    }
+
+    /**
+     * The nodes reached by a search in the order they were visited, read directly from the arrays of the search
+     */
+    public class Result {
+        private final int generation;
+
+        Result(int generation) {
+            this.generation = generation;
+        }
+
+        /**
+         * @return the number of reached nodes
+         */
+        public int size() {
+            this.check();
+            return tail;
+        }
+
+        /**
+         * @param index the position in the visit order, the start node is at 0
+         * @return the id of the node
+         */
+        public int getId(int index) {
+            this.check();
+            if (index < 0 || index >= tail) {
+                throw new IndexOutOfBoundsException(String.format("Index %d, size %d", index, tail));
+            }
+            return queue[index];
+        }
+
+        public String getLabel(int index) {
+            return graph.getLabel(this.getId(index));
+        }
+
+        public int getCost(int index) {
+            return cost[this.getId(index)];
+        }
+
+        /**
+         * @return the number of levels searched bottom up
+         */
+        public int getBottomUpLevels() {
+            this.check();
+            return bottomUpLevels;
+        }
+
+        /**
+         * @param id the id of a node
+         * @return true if the search reached the node
+         */
+        public boolean isReached(int id) {
+            this.check();
+            return id >= 0 && id < queue.length && (visited[id >>> 6] & (1L << id)) != 0;
+        }
+
+        /**
+         * @param id the id of a reached node
+         * @return the cost of the node
+         * @throws NoSuchElementException if the node was not reached
+         */
+        public int getCostOf(int id) throws NoSuchElementException {
+            return cost[this.checkReached(id)];
+        }
+
+        /**
+         * @param id the id of a reached node
+         * @return the id of the node the node was reached from, -1 for the start node
+         * @throws NoSuchElementException if the node was not reached
+         */
+        public int getPredecessor(int id) throws NoSuchElementException {
+            return predecessor[this.checkReached(id)];
+        }
+
+        /**
+         * @return a view of the result as {@link GraphSearch.SearchResult}s, they are created when they are accessed
+         */
+        public List<GraphSearch.SearchResult> asList() {
+            return new AbstractList<GraphSearch.SearchResult>() {
+                @Override
+                public GraphSearch.SearchResult get(int index) {
+                    return new GraphSearch.SearchResult(graph.getNode(getLabel(index)), getCost(index));
+                }
+
+                @Override
+                public int size() {
+                    return Result.this.size();
+                }
+            };
+        }
+
+        private int checkReached(int id) throws NoSuchElementException {
+            if (!this.isReached(id)) {
+                throw new NoSuchElementException(String.format("Node %d was not reached", id));
+            }
+            return id;
+        }
+
+        private void check() {
+            if (this.generation != BreadthFirstSearch.this.generation) {
+                throw new IllegalStateException("The result is no longer valid, another search was started");
+            }
+        }
+    }
+}
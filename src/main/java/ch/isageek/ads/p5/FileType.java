@@ -19,5 +19,13 @@ public enum FileType {
      *               b,a,1</code>
      * Definition is: List of edges in the form of: NodeA,NodeB[,weight]
      */
-    CSV
+    CSV,
+    /**
+     * Represents a Graph in compressed sparse row format as little endian int arrays, written by
+     * {@link ch.isageek.ads.p5.impl.MappedGraph#write(Graph, java.io.File)}
+     * Definition is: Header, edge offsets per node, edge targets, edge weights, label dictionary
+     * The file starts with the bytes <code>ADSG</code>, the layout is documented in
+     * {@link ch.isageek.ads.p5.impl.MappedGraph}
+     */
+    BINARY
 }
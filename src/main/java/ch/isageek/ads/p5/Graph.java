@@ -36,4 +36,70 @@ public interface Graph {
     void addEdge(final String src, final String dest, final int cost);
 
     void removeEdge(final String src, final String dest);
+
+    /**
+     * Returns the dense id of a node, see {@link SymbolTable}
+     * @param label the label of the node
+     * @return the id of the node, smaller than {@link #getNodeIdBound()}
+     * @throws NoSuchElementException if the node does not exist
+     */
+    int getNodeId(final String label) throws NoSuchElementException;
+
+    /**
+     * @param id the id of a node
+     * @return the label of the node
+     * @throws NoSuchElementException if no node has the id
+     */
+    String getLabel(final int id) throws NoSuchElementException;
+
+    /**
+     * Returns an upper bound of the node ids, arrays of this size can be indexed by all ids.
+     * Ids of removed nodes are reused, so the bound is not necessarily the number of nodes.
+     * @return an upper bound of the node ids
+     */
+    int getNodeIdBound();
+
+    List<Edge> getEdgesFor(final int id) throws NoSuchElementException;
+
+    /**
+     * @param id the id of a node
+     * @return the number of edges starting at the node
+     */
+    int degree(final int id) throws NoSuchElementException;
+
+    /**
+     * Calls the action with the id of every neighbour of the node and the cost of the edge to it, without creating
+     * {@link Edge} objects
+     * @param id the id of a node
+     * @param action the action receiving the id of the neighbour and the cost
+     */
+    void forEachNeighbor(final int id, IntIntConsumer action) throws NoSuchElementException;
+
+    /**
+     * @return true if {@link #anyIncoming(int, IntIntPredicate)} uses an index of the incoming edges instead of
+     * scanning the whole graph
+     */
+    default boolean hasIncomingIndex() {
+        return false;
+    }
+
+    /**
+     * Tests the edges ending at the node with the id of their source and their cost until the predicate is true.
+     * An id without a node has no incoming edges.
+     * The default implementation scans all edges of the graph, see {@link #hasIncomingIndex()}.
+     * @param id the id of a node
+     * @param predicate the predicate receiving the id of the source and the cost
+     * @return true if the predicate was true for an edge
+     */
+    default boolean anyIncoming(final int id, IntIntPredicate predicate) {
+        for (Node node : getNodes()) {
+            final int source = getNodeId(node.getValue());
+            final boolean[] found = {false};
+            forEachNeighbor(source, (target, cost) -> found[0] = found[0] || (target == id && predicate.test(source, cost)));
+            if (found[0]) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
@@ -4,47 +4,43 @@ import java.util.*;
 
 public class GraphSearch {
 
-    private static enum Color {
-        WHITE, GRAY, BLACK;
+    /**
+     * Searches the graph breadth first with a {@link BreadthFirstSearch}, use it directly to reuse its arrays
+     * and to read the result without creating a {@link SearchResult} per node
+     * @param graph the graph to search
+     * @param nodeStart the label of the start node
+     * @return the reached nodes in the order they were visited
+     * @throws NoSuchElementException if the start node does not exist
+     */
+    public static List<SearchResult> breadthFirstSearch(Graph graph, String nodeStart) throws NoSuchElementException {
+        return new ArrayList<>(new BreadthFirstSearch(graph).search(nodeStart).asList());
     }
 
-    private static class BFSItem {
-        Color color;
-        int cost;
-        Node pred;
-        public BFSItem(Color color, int cost, Node pred) {
-            this.color = color;
-            this.cost = cost;
-            this.pred = pred;
-        }
+    /**
+     * Searches the graph breadth first, switching to bottom up steps for big frontiers if the graph has an index of
+     * incoming edges, see {@link BreadthFirstSearch#setDirectionOptimizing(boolean)}
+     * @param graph the graph to search
+     * @param nodeStart the label of the start node
+     * @return the reached nodes in the order they were visited
+     * @throws NoSuchElementException if the start node does not exist
+     */
+    public static List<SearchResult> directionOptimizingBreadthFirstSearch(Graph graph, String nodeStart) throws NoSuchElementException {
+        final BreadthFirstSearch search = new BreadthFirstSearch(graph);
+        search.setDirectionOptimizing(true);
+        return new ArrayList<>(search.search(nodeStart).asList());
     }
 
-    public static List<SearchResult> breadthFirstSearch(Graph graph, String nodeStart) throws NoSuchElementException {
-        Queue<Node> queue = new LinkedList<>();
-        List<SearchResult> results = new ArrayList<>(graph.getNumberOfNodes());
-
-        HashMap<Node, BFSItem> table = new HashMap<>(graph.getNumberOfNodes());
-        graph.getNodes().forEach(node -> table.put(node, new BFSItem(Color.WHITE, Integer.MAX_VALUE, null)));
-        table.get(graph.getNode(nodeStart)).color = Color.GRAY;
-        table.get(graph.getNode(nodeStart)).cost = 0;
-
-        queue.add(graph.getNode(nodeStart));
-        while (!queue.isEmpty()) {
-            Node node = queue.poll();
-            List<Edge> edges = node.getEdges();
-            for (Edge edge : edges) {
-                if (table.get(edge.getDestination()).color == Color.WHITE) {
-                    BFSItem item = table.get(edge.getDestination());
-                    item.color = Color.GRAY;
-                    item.cost = table.get(node).cost + edge.getCost();
-                    item.pred = node;
-                    queue.add(edge.getDestination());
-                }
-            }
-            table.get(node).color = Color.BLACK;
-            results.add(new SearchResult(node, table.get(node).cost));
-        }
-        return results;
+    /**
+     * Searches the graph breadth first, expanding big levels in parallel, see {@link BreadthFirstSearch#setParallel(boolean)}
+     * @param graph the graph to search
+     * @param nodeStart the label of the start node
+     * @return the reached nodes level by level
+     * @throws NoSuchElementException if the start node does not exist
+     */
+    public static List<SearchResult> parallelBreadthFirstSearch(Graph graph, String nodeStart) throws NoSuchElementException {
+        final BreadthFirstSearch search = new BreadthFirstSearch(graph);
+        search.setParallel(true);
+        return new ArrayList<>(search.search(nodeStart).asList());
     }
 
     public static class SearchResult {
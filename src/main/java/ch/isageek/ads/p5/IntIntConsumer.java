@@ -0,0 +1,9 @@
+package ch.isageek.ads.p5;
+
+/**
+ * Accepts two ints without boxing them, e.g. the id of a neighbour and the cost of the edge to it
+ */
+@FunctionalInterface
+public interface IntIntConsumer {
+    void accept(int first, int second);
+}
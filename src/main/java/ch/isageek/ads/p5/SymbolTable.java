@@ -0,0 +1,143 @@
+package ch.isageek.ads.p5;
+
+import ch.isageek.ads.p5.exception.NodeAlreadyDefinedException;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.stream.IntStream;
+
+/**
+ * Maps node labels to dense int ids and back.
+ * Ids start at 0 and stay below {@link #getIdBound()}, the ids of removed labels are reused for new labels,
+ * so arrays indexed by id stay as small as the graph.
+ */
+public class SymbolTable {
+
+    private final static int DEFAULT_SIZE = 16;
+
+    private final Map<String, Integer> ids;
+    private String[] labels;
+    // Removed ids, the last one is reused first
+    private int[] freeIds = new int[0];
+    private int freeCount;
+    private int idBound;
+
+    public SymbolTable() {
+        this(DEFAULT_SIZE);
+    }
+
+    public SymbolTable(int expectedLabels) {
+        this.ids = new HashMap<>(expectedLabels);
+        this.labels = new String[Math.max(1, expectedLabels)];
+    }
+
+    /**
+     * Assigns an id to the label
+     * @param label the label
+     * @return the id of the label
+     * @throws NodeAlreadyDefinedException if the label already has an id
+     */
+    public int add(String label) throws NodeAlreadyDefinedException {
+        if (this.ids.containsKey(label)) {
+            throw new NodeAlreadyDefinedException(label);
+        }
+        final int id;
+        if (this.freeCount > 0) {
+            id = this.freeIds[--this.freeCount];
+        } else {
+            id = this.idBound++;
+            if (id == this.labels.length) {
+                this.labels = Arrays.copyOf(this.labels, this.labels.length * 2);
+            }
+        }
+        this.labels[id] = label;
+        this.ids.put(label, id);
+        return id;
+    }
+
+    /**
+     * Removes the label, its id will be reused
+     * @param label the label
+     * @return the id the label had
+     * @throws NoSuchElementException if the label has no id
+     */
+    public int remove(String label) throws NoSuchElementException {
+        final int id = this.getId(label);
+        this.ids.remove(label);
+        this.labels[id] = null;
+        if (this.freeCount == this.freeIds.length) {
+            this.freeIds = Arrays.copyOf(this.freeIds, Math.max(DEFAULT_SIZE, this.freeCount * 2));
+        }
+        this.freeIds[this.freeCount++] = id;
+        return id;
+    }
+
+    /**
+     * @param label the label
+     * @return the id of the label
+     * @throws NoSuchElementException if the label has no id
+     */
+    public int getId(String label) throws NoSuchElementException {
+        final Integer id = this.ids.get(label);
+        if (id == null) {
+            throw new NoSuchElementException(String.format("Node %s does not exist", label));
+        }
+        return id;
+    }
+
+    /**
+     * @param label the label
+     * @return the id of the label or -1 if the label has no id
+     */
+    public int indexOf(String label) {
+        final Integer id = this.ids.get(label);
+        return id == null ? -1 : id;
+    }
+
+    public boolean contains(String label) {
+        return this.ids.containsKey(label);
+    }
+
+    /**
+     * @param id the id
+     * @return the label with the id
+     * @throws NoSuchElementException if no label has the id
+     */
+    public String getLabel(int id) throws NoSuchElementException {
+        if (!this.isUsed(id)) {
+            throw new NoSuchElementException(String.format("Node %d does not exist", id));
+        }
+        return this.labels[id];
+    }
+
+    /**
+     * @param id the id
+     * @return true if a label has the id
+     */
+    public boolean isUsed(int id) {
+        return id >= 0 && id < this.idBound && this.labels[id] != null;
+    }
+
+    /**
+     * @return the number of labels
+     */
+    public int size() {
+        return this.ids.size();
+    }
+
+    /**
+     * @return an upper bound for all ids, every id is smaller
+     */
+    public int getIdBound() {
+        return this.idBound;
+    }
+
+    /**
+     * @return all used ids in increasing order
+     */
+    public IntStream ids() {
+        return IntStream.range(0, this.idBound).filter(this::isUsed);
+    }
+}
@@ -0,0 +1,324 @@
+package ch.isageek.ads.p5.impl;
+
+import ch.isageek.ads.p5.*;
+import ch.isageek.ads.p5.exception.GraphParseException;
+import ch.isageek.ads.p5.exception.NodeAlreadyDefinedException;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * An immutable graph in compressed sparse row format.
+ * Every node has a dense id, the edges of node {@code id} are stored in {@code targets} and {@code weights} from
+ * {@code offsets[id]} (inclusive) to {@code offsets[id + 1]} (exclusive), so an edge costs two ints and no object.
+ * The graph is either copied from another {@link Graph} with {@link #of(Graph)} or read from a file, all methods
+ * changing the graph throw an {@link UnsupportedOperationException}.
+ */
+public class CsrGraph extends LoadingGraph {
+
+    private SymbolTable symbols = new SymbolTable();
+    private int[] offsets = new int[1];
+    private int[] targets = new int[0];
+    private int[] weights = new int[0];
+    private CsrNode[] nodes = new CsrNode[0];
+
+    // Only set while reading a file
+    private Loader loader;
+
+    /**
+     * Creates an empty graph, use {@link #readFromFile(File)} to fill it
+     */
+    public CsrGraph() {
+    }
+
+    /**
+     * Copies the nodes and edges of the graph
+     * @param graph the graph to copy
+     * @return the immutable copy
+     */
+    public static CsrGraph of(Graph graph) {
+        final CsrGraph csr = new CsrGraph();
+        final Loader loader = new Loader(graph.getNumberOfNodes(), graph.getNumberOfEdges());
+        for (Node node : graph.getNodes()) {
+            try {
+                loader.addNode(node.getValue());
+            } catch (NodeAlreadyDefinedException e) {
+                throw new IllegalArgumentException(String.format("Node %s is contained twice", node.getValue()), e);
+            }
+        }
+        graph.getNodes().forEach(node -> graph.getEdgesFor(node.getValue())
+                .forEach(edge -> loader.addEdge(node.getValue(), edge.getDestination().getValue(), edge.getCost())));
+        csr.build(loader);
+        return csr;
+    }
+
+    /**
+     * Reads a graph from a file with a representation documented in {@link ch.isageek.ads.p5.FileType}
+     * @param file the file to load
+     * @return the graph
+     * @throws IOException if the file cannot be opened
+     * @throws GraphParseException if the file cannot be parsed
+     */
+    public static CsrGraph fromFile(File file) throws IOException, GraphParseException {
+        final CsrGraph csr = new CsrGraph();
+        csr.readFromFile(file);
+        return csr;
+    }
+
+    /**
+     * {@inheritDoc}
+     * As the graph is immutable this is only possible while it is empty.
+     */
+    @Override
+    public void readFromFile(File file) throws IOException, GraphParseException {
+        if (this.symbols.size() > 0) {
+            throw new UnsupportedOperationException("CsrGraph is immutable, it can only be read into an empty graph");
+        }
+        this.loader = new Loader(0, 0);
+        try {
+            super.readFromFile(file);
+            this.build(this.loader);
+        } finally {
+            this.loader = null;
+        }
+    }
+
+    private void build(Loader loader) {
+        final int nodeCount = loader.symbols.size();
+        final int edgeCount = loader.edgeCount;
+        this.symbols = loader.symbols;
+        this.offsets = new int[nodeCount + 1];
+        this.targets = new int[edgeCount];
+        this.weights = new int[edgeCount];
+        // Counting sort of the edges by their source, edges of the same source keep their order
+        for (int edge = 0; edge < edgeCount; edge++) {
+            this.offsets[loader.sources[edge] + 1]++;
+        }
+        for (int id = 0; id < nodeCount; id++) {
+            this.offsets[id + 1] += this.offsets[id];
+        }
+        final int[] next = Arrays.copyOf(this.offsets, nodeCount);
+        for (int edge = 0; edge < edgeCount; edge++) {
+            final int position = next[loader.sources[edge]]++;
+            this.targets[position] = loader.targets[edge];
+            this.weights[position] = loader.weights[edge];
+        }
+        this.nodes = new CsrNode[nodeCount];
+        for (int id = 0; id < nodeCount; id++) {
+            this.nodes[id] = new CsrNode(id);
+        }
+    }
+
+    @Override
+    public int getNumberOfNodes() {
+        return this.symbols.size();
+    }
+
+    @Override
+    public int getNumberOfEdges() {
+        return this.targets.length;
+    }
+
+    @Override
+    public List<Node> getNodes() {
+        return Collections.unmodifiableList(Arrays.asList(this.nodes));
+    }
+
+    @Override
+    public List<Edge> getEdgesFor(String label) {
+        return this.getNode(label).getEdges();
+    }
+
+    @Override
+    public Node getNode(String label) throws NoSuchElementException {
+        return this.nodes[this.getNodeId(label)];
+    }
+
+    /**
+     * {@inheritDoc}
+     * The ids are between 0 and {@link #getNumberOfNodes()}.
+     */
+    @Override
+    public int getNodeId(String label) throws NoSuchElementException {
+        return this.symbols.getId(label);
+    }
+
+    @Override
+    public String getLabel(int id) throws NoSuchElementException {
+        return this.symbols.getLabel(id);
+    }
+
+    @Override
+    public int getNodeIdBound() {
+        return this.symbols.getIdBound();
+    }
+
+    @Override
+    public List<Edge> getEdgesFor(int id) throws NoSuchElementException {
+        return this.getNode(id).getEdges();
+    }
+
+    @Override
+    public int degree(int id) throws NoSuchElementException {
+        this.getNode(id);
+        return this.offsets[id + 1] - this.offsets[id];
+    }
+
+    @Override
+    public void forEachNeighbor(int id, IntIntConsumer action) throws NoSuchElementException {
+        this.getNode(id);
+        for (int edge = this.offsets[id]; edge < this.offsets[id + 1]; edge++) {
+            action.accept(this.targets[edge], this.weights[edge]);
+        }
+    }
+
+    private CsrNode getNode(int id) throws NoSuchElementException {
+        if (id < 0 || id >= this.nodes.length) {
+            throw new NoSuchElementException(String.format("Node %d does not exist", id));
+        }
+        return this.nodes[id];
+    }
+
+    /**
+     * @param id the id of the node
+     * @return the index of the first edge of the node
+     */
+    public int getEdgeStart(int id) {
+        return this.offsets[id];
+    }
+
+    /**
+     * @param id the id of the node
+     * @return the index after the last edge of the node
+     */
+    public int getEdgeEnd(int id) {
+        return this.offsets[id + 1];
+    }
+
+    /**
+     * @param edge the index of the edge
+     * @return the id of the destination of the edge
+     */
+    public int getTarget(int edge) {
+        return this.targets[edge];
+    }
+
+    public int getWeight(int edge) {
+        return this.weights[edge];
+    }
+
+    @Override
+    public Node addNode(String label) throws NodeAlreadyDefinedException {
+        if (this.loader == null) {
+            throw new UnsupportedOperationException("CsrGraph is immutable");
+        }
+        this.loader.addNode(label);
+        // The node only exists once the whole file is read
+        return null;
+    }
+
+    @Override
+    public void removeNode(String label) {
+        throw new UnsupportedOperationException("CsrGraph is immutable");
+    }
+
+    @Override
+    public void addEdge(String src, String dest, int cost) {
+        if (this.loader == null) {
+            throw new UnsupportedOperationException("CsrGraph is immutable");
+        }
+        this.loader.addEdge(src, dest, cost);
+    }
+
+    @Override
+    public void removeEdge(String src, String dest) {
+        throw new UnsupportedOperationException("CsrGraph is immutable");
+    }
+
+    /**
+     * Collects nodes and edges before the arrays are built
+     */
+    private static class Loader {
+        final SymbolTable symbols;
+        int[] sources;
+        int[] targets;
+        int[] weights;
+        int edgeCount;
+
+        Loader(int nodes, int edges) {
+            this.symbols = new SymbolTable(nodes);
+            this.sources = new int[Math.max(16, edges)];
+            this.targets = new int[this.sources.length];
+            this.weights = new int[this.sources.length];
+        }
+
+        void addNode(String label) throws NodeAlreadyDefinedException {
+            this.symbols.add(label);
+        }
+
+        void addEdge(String src, String dest, int cost) {
+            final int source = this.symbols.getId(src);
+            final int target = this.symbols.getId(dest);
+            if (this.edgeCount == this.sources.length) {
+                this.sources = Arrays.copyOf(this.sources, this.edgeCount * 2);
+                this.targets = Arrays.copyOf(this.targets, this.edgeCount * 2);
+                this.weights = Arrays.copyOf(this.weights, this.edgeCount * 2);
+            }
+            this.sources[this.edgeCount] = source;
+            this.targets[this.edgeCount] = target;
+            this.weights[this.edgeCount] = cost;
+            this.edgeCount++;
+        }
+    }
+
+    private class CsrNode implements Node {
+        final int id;
+
+        CsrNode(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public String getValue() {
+            return symbols.getLabel(this.id);
+        }
+
+        @Override
+        public List<Edge> getEdges() {
+            final List<Edge> edges = new ArrayList<>(offsets[this.id + 1] - offsets[this.id]);
+            for (int edge = offsets[this.id]; edge < offsets[this.id + 1]; edge++) {
+                edges.add(new CsrEdge(edge));
+            }
+            return edges;
+        }
+
+        @Override
+        public String toString() {
+            return this.getValue();
+        }
+    }
+
+    private class CsrEdge implements Edge {
+        final int edge;
+
+        CsrEdge(int edge) {
+            this.edge = edge;
+        }
+
+        @Override
+        public Node getDestination() {
+            return nodes[targets[this.edge]];
+        }
+
+        @Override
+        public int getCost() {
+            return weights[this.edge];
+        }
+
+        @Override
+        public String toString() {
+            return String.format("-> %s: %d", this.getDestination(), this.getCost());
+        }
+    }
+}
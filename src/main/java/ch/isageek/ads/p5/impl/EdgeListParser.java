@@ -0,0 +1,497 @@
+package ch.isageek.ads.p5.impl;
+
+import ch.isageek.ads.p5.FileType;
+import ch.isageek.ads.p5.exception.GraphParseException;
+import ch.isageek.ads.p5.exception.NodeAlreadyDefinedException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * Reads the representations documented in {@link FileType} directly from the bytes of a memory mapped file.
+ * Nodes and edges are added to the graph as soon as they are read, so apart from the graph only the current token
+ * and the labels already seen are kept in memory.
+ * Line breaks separate tokens like commas, a file with more than one line is read as {@link FileType#CSV}.
+ *
+ * Big files are split into one chunk per processor at token boundaries. A first pass counts the tokens of every chunk,
+ * so every chunk knows which field of an edge its first token is. The chunks are then parsed in parallel into
+ * edge buffers with their own label dictionary, which are added to the graph in file order.
+ */
+class EdgeListParser {
+
+    private final static long WINDOW_SIZE = 1 << 30;
+    // Minimum number of bytes for a file to be parsed in parallel
+    private final static long PARALLEL_THRESHOLD = 1 << 24;
+    private final static byte[] WEIGHTED_PREFIX = "W:".getBytes(StandardCharsets.UTF_8);
+    // Node count and edge count of an edgelist
+    private final static int HEADER_TOKENS = 2;
+
+    private final LoadingGraph graph;
+    private final Set<String> seen = new HashSet<>();
+
+    private int headerTokens;
+    private int fieldsPerEdge;
+
+    EdgeListParser(LoadingGraph graph) {
+        this.graph = graph;
+    }
+
+    void parse(File file) throws IOException, GraphParseException {
+        final int processors = Runtime.getRuntime().availableProcessors();
+        this.parse(file, file.length() >= PARALLEL_THRESHOLD ? processors : 1);
+    }
+
+    /**
+     * @param file the file to read
+     * @param parts the number of chunks to parse in parallel, 1 parses the file sequentially
+     */
+    void parse(File file, int parts) throws IOException, GraphParseException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (size == 0) {
+                System.err.println("One line of text is required for a graph definition");
+                throw new GraphParseException("File is empty");
+            }
+            long start = 0;
+            final long secondLine = secondLineStart(channel, size);
+            if (secondLine >= 0) {
+                System.out.println("File contains multiple lines, assuming csv representation");
+                // Csv has no node count and edge count
+                this.headerTokens = 0;
+                this.fieldsPerEdge = countFields(channel, secondLine, size) == 3 ? 3 : 2;
+            } else if (startsWithWeightedPrefix(channel, size)) {
+                this.headerTokens = HEADER_TOKENS;
+                this.fieldsPerEdge = 3;
+                start = WEIGHTED_PREFIX.length;
+            } else {
+                this.headerTokens = HEADER_TOKENS;
+                this.fieldsPerEdge = 2;
+            }
+            // Trailing empty tokens are ignored, like String.split drops trailing empty strings
+            final long end = contentEnd(channel, start, size);
+            if (parts > 1) {
+                this.parseParallel(channel, start, end, parts);
+            } else {
+                this.parseSequential(channel, start, end);
+            }
+        }
+    }
+
+    private void parseSequential(FileChannel channel, long start, long end) throws IOException, GraphParseException {
+        final SequentialTokenizer tokenizer = new SequentialTokenizer();
+        tokenizer.tokenize(channel, start, end);
+        if (tokenizer.header.size() < this.headerTokens) {
+            throw tooShort();
+        }
+        if (tokenizer.fieldCount != 0) {
+            throw this.uneven();
+        }
+    }
+
+    private void parseParallel(FileChannel channel, long start, long end, int parts) throws IOException, GraphParseException {
+        final long[] bounds = chunkBounds(channel, start, end, parts);
+        final int chunkCount = bounds.length - 1;
+        final long[] firstToken = new long[chunkCount + 1];
+        try {
+            IntStream.range(0, chunkCount).parallel().forEach(idx -> {
+                try {
+                    firstToken[idx + 1] = countTokens(channel, bounds[idx], bounds[idx + 1], idx == chunkCount - 1);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        for (int idx = 0; idx < chunkCount; idx++) {
+            firstToken[idx + 1] += firstToken[idx];
+        }
+        final long tokens = firstToken[chunkCount];
+        if (tokens < this.headerTokens) {
+            throw tooShort();
+        }
+
+        final Chunk[] chunks = new Chunk[chunkCount];
+        try {
+            IntStream.range(0, chunkCount).parallel().forEach(idx -> {
+                chunks[idx] = new Chunk(firstToken[idx]);
+                try {
+                    chunks[idx].tokenize(channel, bounds[idx], bounds[idx + 1]);
+                } catch (GraphParseException e) {
+                    chunks[idx].error = e;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        final List<String> header = new ArrayList<>(this.headerTokens);
+        for (Chunk chunk : chunks) {
+            header.addAll(chunk.header);
+        }
+        if (this.headerTokens > 0) {
+            parseHeader(header);
+        }
+        if ((tokens - this.headerTokens) % this.fieldsPerEdge != 0) {
+            throw this.uneven();
+        }
+
+        // Fields of an edge spanning chunk boundaries
+        final List<String> pending = new ArrayList<>(this.fieldsPerEdge);
+        for (Chunk chunk : chunks) {
+            pending.addAll(chunk.head);
+            if (!chunk.recordStarted) {
+                continue;
+            }
+            if (!pending.isEmpty()) {
+                this.addEdge(pending.toArray(new String[this.fieldsPerEdge]));
+                pending.clear();
+            }
+            if (chunk.error != null) {
+                throw chunk.error;
+            }
+            chunk.labels.forEach(this::addNode);
+            for (int edge = 0; edge < chunk.edgeCount; edge++) {
+                this.graph.addEdge(chunk.labels.get(chunk.edges[3 * edge]), chunk.labels.get(chunk.edges[3 * edge + 1]),
+                        chunk.edges[3 * edge + 2]);
+            }
+            pending.addAll(Arrays.asList(chunk.fields).subList(0, chunk.fieldCount));
+        }
+        if (!pending.isEmpty()) {
+            this.addEdge(pending.toArray(new String[this.fieldsPerEdge]));
+        }
+    }
+
+    private void addEdge(String[] fields) throws GraphParseException {
+        final String first = fields[0].trim();
+        final String second = fields[1].trim();
+        final int cost = this.fieldsPerEdge == 3 ? parseCost(fields[2]) : 1;
+        this.addNode(first);
+        this.addNode(second);
+        this.graph.addEdge(first, second, cost);
+    }
+
+    private void addNode(String label) {
+        if (this.seen.add(label)) {
+            try {
+                this.graph.addNode(label);
+            } catch (NodeAlreadyDefinedException e) {
+                // The graph already contained the node before reading the file
+            }
+        }
+    }
+
+    private static int parseCost(String field) throws GraphParseException {
+        try {
+            return Integer.parseInt(field.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("Weights must be integers");
+            throw new GraphParseException(String.format("All weights must be integers but %s is not.", field));
+        }
+    }
+
+    private static void parseHeader(List<String> header) throws GraphParseException {
+        try {
+            Integer.parseInt(header.get(0));
+            Integer.parseInt(header.get(1));
+        } catch (NumberFormatException e) {
+            System.err.println("File does not start with 2 integers");
+            throw new GraphParseException("Could not parseEdgelistGraph either node count or edge count.");
+        }
+    }
+
+    private static GraphParseException tooShort() {
+        System.err.println("Edgelist too short, needs at least 2 entries specifying nodecount and edgecount");
+        return new GraphParseException("Edgelist too short, needs at least 2 entries specifying nodecount and edgecount");
+    }
+
+    private GraphParseException uneven() {
+        if (this.fieldsPerEdge == 2) {
+            System.err.println("Weightless edgelist must contain an even number of entries");
+            return new GraphParseException("Weightless edgelist must contain an even number of entries");
+        }
+        System.err.println("Weighted edgelist must contain 3 entries for each edge");
+        return new GraphParseException("Weighted edgelist must contain 3 entries for each edge");
+    }
+
+    private static boolean isSeparator(byte b) {
+        return b == ',' || b == '\n' || b == '\r';
+    }
+
+    /**
+     * Splits the bytes between two positions into tokens.
+     * The end must either be the end of the content or directly follow a separator.
+     */
+    private abstract static class Tokenizer {
+        private byte[] token = new byte[64];
+        private int tokenLength;
+        private boolean afterCarriageReturn;
+
+        void tokenize(FileChannel channel, long start, long end) throws IOException, GraphParseException {
+            for (long position = start; position < end; position += WINDOW_SIZE) {
+                final MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW_SIZE, end - position));
+                final int limit = window.limit();
+                for (int i = 0; i < limit; i++) {
+                    final byte b = window.get(i);
+                    if (b == ',' || b == '\r') {
+                        this.endToken();
+                    } else if (b == '\n') {
+                        // \r\n is a single line break
+                        if (!this.afterCarriageReturn) {
+                            this.endToken();
+                        }
+                    } else {
+                        if (this.tokenLength == this.token.length) {
+                            this.token = Arrays.copyOf(this.token, this.tokenLength * 2);
+                        }
+                        this.token[this.tokenLength++] = b;
+                    }
+                    this.afterCarriageReturn = b == '\r';
+                }
+            }
+            if (this.tokenLength > 0) {
+                this.endToken();
+            }
+        }
+
+        private void endToken() throws GraphParseException {
+            // Separators are ascii, so they never split a multi byte character
+            this.accept(new String(this.token, 0, this.tokenLength, StandardCharsets.UTF_8));
+            this.tokenLength = 0;
+        }
+
+        abstract void accept(String value) throws GraphParseException;
+    }
+
+    /**
+     * Adds every edge to the graph as soon as it is read
+     */
+    private class SequentialTokenizer extends Tokenizer {
+        final List<String> header = new ArrayList<>(headerTokens);
+        final String[] fields = new String[fieldsPerEdge];
+        int fieldCount;
+
+        @Override
+        void accept(String value) throws GraphParseException {
+            if (this.header.size() < headerTokens) {
+                this.header.add(value);
+                if (this.header.size() == headerTokens) {
+                    parseHeader(this.header);
+                }
+                return;
+            }
+            this.fields[this.fieldCount++] = value;
+            if (this.fieldCount == fieldsPerEdge) {
+                this.fieldCount = 0;
+                addEdge(this.fields);
+            }
+        }
+    }
+
+    /**
+     * Collects the edges of a chunk with labels numbered in order of their first appearance
+     */
+    private class Chunk extends Tokenizer {
+        // Index of the next token in the whole file
+        long index;
+        final List<String> header = new ArrayList<>(0);
+        // Fields of an edge which started in an earlier chunk
+        final List<String> head = new ArrayList<>(0);
+        boolean recordStarted;
+        // Fields of an edge which ends in a later chunk
+        final String[] fields = new String[fieldsPerEdge];
+        int fieldCount;
+        final Map<String, Integer> ids = new HashMap<>();
+        final List<String> labels = new ArrayList<>();
+        // Source, destination and cost of every edge
+        int[] edges = new int[3 * 64];
+        int edgeCount;
+        GraphParseException error;
+
+        Chunk(long index) {
+            this.index = index;
+        }
+
+        @Override
+        void accept(String value) throws GraphParseException {
+            final long token = this.index++;
+            if (token < headerTokens) {
+                this.header.add(value);
+                return;
+            }
+            if ((token - headerTokens) % fieldsPerEdge == 0) {
+                this.recordStarted = true;
+            }
+            if (!this.recordStarted) {
+                this.head.add(value);
+                return;
+            }
+            this.fields[this.fieldCount++] = value;
+            if (this.fieldCount == fieldsPerEdge) {
+                this.fieldCount = 0;
+                final int cost = fieldsPerEdge == 3 ? parseCost(this.fields[2]) : 1;
+                if (3 * this.edgeCount == this.edges.length) {
+                    this.edges = Arrays.copyOf(this.edges, this.edges.length * 2);
+                }
+                this.edges[3 * this.edgeCount] = this.id(this.fields[0].trim());
+                this.edges[3 * this.edgeCount + 1] = this.id(this.fields[1].trim());
+                this.edges[3 * this.edgeCount + 2] = cost;
+                this.edgeCount++;
+            }
+        }
+
+        private int id(String label) {
+            Integer id = this.ids.get(label);
+            if (id == null) {
+                id = this.labels.size();
+                this.ids.put(label, id);
+                this.labels.add(label);
+            }
+            return id;
+        }
+    }
+
+    /**
+     * Splits the content into parts, every part but the first starts directly after a separator
+     * @return the start of every part followed by the end of the content
+     */
+    private static long[] chunkBounds(FileChannel channel, long start, long end, int parts) throws IOException {
+        final long[] bounds = new long[parts + 1];
+        int count = 0;
+        bounds[count++] = start;
+        for (int part = 1; part < parts; part++) {
+            final long nominal = Math.max(start + (end - start) / parts * part, bounds[count - 1]);
+            final long bound = nextTokenStart(channel, nominal, end);
+            if (bound > bounds[count - 1] && bound < end) {
+                bounds[count++] = bound;
+            }
+        }
+        bounds[count++] = end;
+        return Arrays.copyOf(bounds, count);
+    }
+
+    /**
+     * @return the position after the next separator, a \r\n counts as one separator
+     */
+    private static long nextTokenStart(FileChannel channel, long position, long end) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(4096);
+        while (position < end) {
+            buffer.clear();
+            final int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read && position + i < end; i++) {
+                final byte b = buffer.get(i);
+                if (isSeparator(b)) {
+                    long next = position + i + 1;
+                    if (b == '\r' && next < end && readByte(channel, next) == '\n') {
+                        next++;
+                    }
+                    return next;
+                }
+            }
+            position += read;
+        }
+        return end;
+    }
+
+    private static long countTokens(FileChannel channel, long start, long end, boolean last) throws IOException {
+        long tokens = last && end > start ? 1 : 0;
+        boolean afterCarriageReturn = false;
+        for (long position = start; position < end; position += WINDOW_SIZE) {
+            final MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW_SIZE, end - position));
+            final int limit = window.limit();
+            for (int i = 0; i < limit; i++) {
+                final byte b = window.get(i);
+                if (b == ',' || b == '\r' || (b == '\n' && !afterCarriageReturn)) {
+                    tokens++;
+                }
+                afterCarriageReturn = b == '\r';
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * @return the position after the last byte which is not a separator
+     */
+    private static long contentEnd(FileChannel channel, long start, long size) throws IOException {
+        long end = size;
+        while (end > start && isSeparator(readByte(channel, end - 1))) {
+            end--;
+        }
+        return end;
+    }
+
+    /**
+     * @return the position after the first line break, -1 if the file has only one line
+     */
+    private static long secondLineStart(FileChannel channel, long size) throws IOException {
+        for (long position = 0; position < size; position += WINDOW_SIZE) {
+            final MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW_SIZE, size - position));
+            final int limit = window.limit();
+            for (int i = 0; i < limit; i++) {
+                final byte b = window.get(i);
+                if (b == '\n' || b == '\r') {
+                    long next = position + i + 1;
+                    if (b == '\r' && next < size && readByte(channel, next) == '\n') {
+                        next++;
+                    }
+                    return next < size ? next : -1;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Counts the comma separated fields of the line starting at the position, ignoring trailing empty fields
+     */
+    private static int countFields(FileChannel channel, long start, long size) throws IOException {
+        int field = 0;
+        int lastNonEmpty = -1;
+        for (long position = start; position < size; position += WINDOW_SIZE) {
+            final MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW_SIZE, size - position));
+            final int limit = window.limit();
+            for (int i = 0; i < limit; i++) {
+                final byte b = window.get(i);
+                if (b == '\n' || b == '\r') {
+                    return lastNonEmpty + 1;
+                } else if (b == ',') {
+                    field++;
+                } else {
+                    lastNonEmpty = field;
+                }
+            }
+        }
+        return lastNonEmpty + 1;
+    }
+
+    private static boolean startsWithWeightedPrefix(FileChannel channel, long size) throws IOException {
+        if (size < WEIGHTED_PREFIX.length) {
+            return false;
+        }
+        final ByteBuffer prefix = ByteBuffer.allocate(WEIGHTED_PREFIX.length);
+        while (prefix.hasRemaining() && channel.read(prefix, prefix.position()) >= 0) {
+            // Read until the prefix is complete
+        }
+        return Arrays.equals(prefix.array(), WEIGHTED_PREFIX);
+    }
+
+    private static byte readByte(FileChannel channel, long position) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(1);
+        channel.read(buffer, position);
+        return buffer.get(0);
+    }
+}
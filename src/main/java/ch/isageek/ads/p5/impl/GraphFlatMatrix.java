@@ -0,0 +1,247 @@
+package ch.isageek.ads.p5.impl;
+
+import ch.isageek.ads.p5.Edge;
+import ch.isageek.ads.p5.IntIntConsumer;
+import ch.isageek.ads.p5.Node;
+import ch.isageek.ads.p5.SymbolTable;
+import ch.isageek.ads.p5.exception.NodeAlreadyDefinedException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * An adjacency matrix stored row by row in a single int array, a weight of 0 means there is no edge.
+ * Node labels are mapped to rows by a {@link SymbolTable}. When the matrix is full its capacity is doubled,
+ * the row and column of a removed node are cleared and reused by the next added node.
+ **/
+public class GraphFlatMatrix extends LoadingGraph {
+
+    private final static int DEFAULT_CAPACITY = 16;
+    // capacity * capacity must fit into an array
+    private final static int MAX_CAPACITY = 1 << 15;
+
+    private final SymbolTable symbols;
+    private int capacity;
+    private int[] weights;
+    private FlatNode[] nodes;
+
+    public GraphFlatMatrix() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public GraphFlatMatrix(int nodes) {
+        this.capacity = Math.max(1, Math.min(nodes, MAX_CAPACITY));
+        this.symbols = new SymbolTable(this.capacity);
+        this.weights = new int[this.capacity * this.capacity];
+        this.nodes = new FlatNode[this.capacity];
+    }
+
+    @Override
+    public int getNumberOfNodes() {
+        return this.symbols.size();
+    }
+
+    @Override
+    public int getNumberOfEdges() {
+        int edges = 0;
+        final int bound = this.symbols.getIdBound();
+        for (int id = 0; id < bound; id++) {
+            edges += this.countRow(id);
+        }
+        return edges;
+    }
+
+    @Override
+    public List<Node> getNodes() {
+        final List<Node> result = new ArrayList<>(this.symbols.size());
+        final int bound = this.symbols.getIdBound();
+        for (int id = 0; id < bound; id++) {
+            if (this.nodes[id] != null) {
+                result.add(this.nodes[id]);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<Edge> getEdgesFor(String label) throws NoSuchElementException {
+        return this.getNode(label).getEdges();
+    }
+
+    @Override
+    public Node addNode(String label) throws NodeAlreadyDefinedException {
+        // Grow before the label is registered, so a failed grow leaves the graph unchanged
+        if (this.symbols.size() == this.capacity && !this.symbols.contains(label)) {
+            this.grow();
+        }
+        final int id = this.symbols.add(label);
+        // The row and column of a removed node are already cleared
+        this.nodes[id] = new FlatNode(id);
+        return this.nodes[id];
+    }
+
+    @Override
+    public Node getNode(String label) throws NoSuchElementException {
+        return this.nodes[this.symbols.getId(label)];
+    }
+
+    @Override
+    public void removeNode(String label) throws NoSuchElementException {
+        final int id = this.symbols.remove(label);
+        this.nodes[id] = null;
+        final int row = id * this.capacity;
+        Arrays.fill(this.weights, row, row + this.capacity, 0);
+        for (int cell = id; cell < this.weights.length; cell += this.capacity) {
+            this.weights[cell] = 0;
+        }
+    }
+
+    @Override
+    public void addEdge(String src, String dest, int cost) throws NoSuchElementException {
+        this.weights[this.cell(src, dest)] = cost;
+    }
+
+    @Override
+    public void removeEdge(String src, String dest) throws NoSuchElementException {
+        this.weights[this.cell(src, dest)] = 0;
+    }
+
+    @Override
+    public int getNodeId(String label) throws NoSuchElementException {
+        return this.symbols.getId(label);
+    }
+
+    @Override
+    public String getLabel(int id) throws NoSuchElementException {
+        return this.symbols.getLabel(id);
+    }
+
+    @Override
+    public int getNodeIdBound() {
+        return this.symbols.getIdBound();
+    }
+
+    @Override
+    public List<Edge> getEdgesFor(int id) throws NoSuchElementException {
+        return this.getNode(id).getEdges();
+    }
+
+    @Override
+    public int degree(int id) throws NoSuchElementException {
+        this.getNode(id);
+        return this.countRow(id);
+    }
+
+    @Override
+    public void forEachNeighbor(int id, IntIntConsumer action) throws NoSuchElementException {
+        this.getNode(id);
+        final int row = id * this.capacity;
+        final int bound = this.symbols.getIdBound();
+        for (int target = 0; target < bound; target++) {
+            final int cost = this.weights[row + target];
+            if (cost != 0) {
+                action.accept(target, cost);
+            }
+        }
+    }
+
+    private FlatNode getNode(int id) throws NoSuchElementException {
+        if (!this.symbols.isUsed(id)) {
+            throw new NoSuchElementException(String.format("Node %d does not exist", id));
+        }
+        return this.nodes[id];
+    }
+
+    private int cell(String src, String dest) throws NoSuchElementException {
+        return this.symbols.getId(src) * this.capacity + this.symbols.getId(dest);
+    }
+
+    private int countRow(int id) {
+        final int row = id * this.capacity;
+        final int end = row + this.symbols.getIdBound();
+        int count = 0;
+        for (int cell = row; cell < end; cell++) {
+            if (this.weights[cell] != 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void grow() {
+        if (this.capacity == MAX_CAPACITY) {
+            throw new IllegalStateException(String.format("GraphFlatMatrix cannot hold more than %d nodes", MAX_CAPACITY));
+        }
+        final int newCapacity = Math.min(this.capacity * 2, MAX_CAPACITY);
+        final int[] newWeights = new int[newCapacity * newCapacity];
+        for (int id = 0; id < this.capacity; id++) {
+            System.arraycopy(this.weights, id * this.capacity, newWeights, id * newCapacity, this.capacity);
+        }
+        this.weights = newWeights;
+        this.nodes = Arrays.copyOf(this.nodes, newCapacity);
+        this.capacity = newCapacity;
+    }
+
+    private class FlatNode implements Node {
+        final int id;
+
+        FlatNode(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public String getValue() {
+            this.checkCurrent();
+            return symbols.getLabel(this.id);
+        }
+
+        @Override
+        public List<Edge> getEdges() {
+            this.checkCurrent();
+            final List<Edge> edges = new ArrayList<>();
+            forEachNeighbor(this.id, (target, cost) -> edges.add(new FlatEdge(nodes[target], cost)));
+            return edges;
+        }
+
+        @Override
+        public String toString() {
+            return this.getValue();
+        }
+
+        /**
+         * The id of a removed node is reused, so a handle of a removed node must not read it anymore
+         */
+        private void checkCurrent() {
+            if (nodes[this.id] != this) {
+                throw new NoSuchElementException("Node has been removed");
+            }
+        }
+    }
+
+    private static class FlatEdge implements Edge {
+        final private Node destination;
+        final private int cost;
+
+        FlatEdge(Node destination, int cost) {
+            this.destination = destination;
+            this.cost = cost;
+        }
+
+        @Override
+        public Node getDestination() {
+            return destination;
+        }
+
+        @Override
+        public int getCost() {
+            return cost;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("-> %s: %d", destination, cost);
+        }
+    }
+}
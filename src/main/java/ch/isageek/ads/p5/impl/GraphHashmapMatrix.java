@@ -14,9 +14,14 @@ import java.util.stream.Collectors;
 public class GraphHashmapMatrix extends LoadingGraph {
 
     private Map<String, Map<String, Integer>> adjacencyMatrix;
+    private SymbolTable symbols;
+    // Node handles by label, so the same node is returned every time
+    private Map<String, HashmapNode> nodes;
 
     public GraphHashmapMatrix() {
         adjacencyMatrix = new HashMap<>(0);
+        symbols = new SymbolTable();
+        nodes = new HashMap<>(0);
     }
 
     @Override
@@ -40,19 +45,7 @@ public class GraphHashmapMatrix extends LoadingGraph {
         if (!adjacencyMatrix.containsKey(label)) {
             throw new NoSuchElementException(String.format("Node %s does not exist.", label));
         }
-        return adjacencyMatrix.get(label).entrySet().stream()
-                .filter(entry -> entry.getValue() != 0)
-                .map(entry -> new Edge() {
-                    @Override
-                    public Node getDestination() {
-                        return toNode(entry.getKey());
-                    }
-
-                    @Override
-                    public int getCost() {
-                        return entry.getValue();
-                    }
-                }).collect(Collectors.toList());
+        return toNode(label).getEdges();
     }
 
     @Override
@@ -60,12 +53,14 @@ public class GraphHashmapMatrix extends LoadingGraph {
         if (adjacencyMatrix.containsKey(label)) {
             throw new NodeAlreadyDefinedException(label);
         }
+        symbols.add(label);
         Map<String, Integer> values = new HashMap<>();
         adjacencyMatrix.keySet().forEach(key -> {
             adjacencyMatrix.get(key).put(label, 0);
             values.put(key, 0);
         });
         adjacencyMatrix.put(label, values);
+        nodes.put(label, new HashmapNode(label));
         return toNode(label);
     }
 
@@ -82,6 +77,8 @@ public class GraphHashmapMatrix extends LoadingGraph {
     public void removeNode(String label) throws NoSuchElementException {
         if (adjacencyMatrix.containsKey(label)) {
             adjacencyMatrix.remove(label);
+            symbols.remove(label);
+            nodes.remove(label);
             adjacencyMatrix.keySet().forEach(key -> {
                 adjacencyMatrix.get(key).remove(label);
             });
@@ -106,63 +103,121 @@ public class GraphHashmapMatrix extends LoadingGraph {
         adjacencyMatrix.get(src).put(dest, 0);
     }
 
+    @Override
+    public int getNodeId(String label) throws NoSuchElementException {
+        return symbols.getId(label);
+    }
 
-    private Node toNode(String label) {
-        return toNode(label, new HashMap<>(adjacencyMatrix.size()));
+    @Override
+    public String getLabel(int id) throws NoSuchElementException {
+        return symbols.getLabel(id);
     }
-    private Node toNode(String label, Map<String, Node> nodes) {
-        if (!adjacencyMatrix.containsKey(label)) {
-            throw new NoSuchElementException(String.format("Node %s does not exist", label));
-        }
-        Map<String, Integer> edges = adjacencyMatrix.get(label);
+
+    @Override
+    public int getNodeIdBound() {
+        return symbols.getIdBound();
+    }
+
+    @Override
+    public List<Edge> getEdgesFor(int id) throws NoSuchElementException {
+        return getEdgesFor(symbols.getLabel(id));
+    }
+
+    @Override
+    public int degree(int id) throws NoSuchElementException {
+        return (int)adjacencyMatrix.get(symbols.getLabel(id)).values().stream().filter(value -> value != 0).count();
+    }
+
+    @Override
+    public void forEachNeighbor(int id, IntIntConsumer action) throws NoSuchElementException {
+        adjacencyMatrix.get(symbols.getLabel(id)).forEach((dest, cost) -> {
+            if (cost != 0) {
+                action.accept(symbols.getId(dest), cost);
+            }
+        });
+    }
+
+
+    private HashmapNode toNode(String label) {
         if (!nodes.containsKey(label)) {
-            nodes.put(label, new Node() {
-                @Override
-                public String getValue() {
-                    return label;
-                }
-
-                @Override
-                public List<Edge> getEdges() {
-                    return edges.entrySet().stream().filter(entry -> entry.getValue() != 0).map(entry -> toEdge(entry.getKey(), entry.getValue(), nodes)).collect(Collectors.toList());
-                }
-
-                @Override
-                public int hashCode() {
-                    return Objects.hash(label, getEdges().size());
-                }
-
-                @Override
-                public boolean equals(Object obj) {
-                    return Objects.equals(this.hashCode(), obj.hashCode());
-                }
-            });
+            throw new NoSuchElementException(String.format("Node %s does not exist", label));
         }
-
         return nodes.get(label);
     }
 
-    private Edge toEdge(String dest, int cost, Map<String, Node> nodes) {
-        return new Edge() {
-            @Override
-            public Node getDestination() {
-                return toNode(dest, nodes);
-            }
+    /**
+     * Handle of a node, equal only to itself. The edges are read from the matrix when they are requested.
+     */
+    private class HashmapNode implements Node {
+        final private String label;
 
-            @Override
-            public int getCost() {
-                return cost;
-            }
+        HashmapNode(String label) {
+            this.label = label;
+        }
 
-            @Override
-            public int hashCode() {
-                return Objects.hash(getDestination(), cost);
+        @Override
+        public String getValue() {
+            return label;
+        }
+
+        @Override
+        public List<Edge> getEdges() {
+            if (nodes.get(label) != this) {
+                throw new NoSuchElementException(String.format("Node %s has been removed", label));
             }
+            return adjacencyMatrix.get(label).entrySet().stream()
+                    .filter(entry -> entry.getValue() != 0)
+                    .map(entry -> new HashmapEdge(label, entry.getKey(), entry.getValue()))
+                    .collect(Collectors.toList());
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
 
-            @Override
-            public boolean equals(Object obj) {
-                return Objects.equals(this.hashCode(), obj.hashCode());
+    /**
+     * Edge of a cell of the matrix, the destination node is looked up when it is requested
+     */
+    private class HashmapEdge implements Edge {
+        final private String source;
+        final private String destination;
+        final private int cost;
+
+        HashmapEdge(String source, String destination, int cost) {
+            this.source = source;
+            this.destination = destination;
+            this.cost = cost;
+        }
+
+        @Override
+        public Node getDestination() {
+            return toNode(destination);
+        }
+
+        @Override
+        public int getCost() {
+            return cost;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(source, destination, cost);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof HashmapEdge)) {
+                return false;
             }
-        };
+            final HashmapEdge other = (HashmapEdge) obj;
+            return source.equals(other.source) && destination.equals(other.destination) && cost == other.cost;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("-> %s: %d", destination, cost);
+        }
     }
 }
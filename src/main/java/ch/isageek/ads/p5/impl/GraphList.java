@@ -9,6 +9,8 @@ import java.util.stream.Collectors;
 public class GraphList extends LoadingGraph {
 
     final private Map<String, NodeL> nodes;
+    final private SymbolTable symbols;
+    private NodeL[] nodesById;
 
     public GraphList() {
         this(0);
@@ -16,21 +18,32 @@ public class GraphList extends LoadingGraph {
 
     public GraphList(int nodes) {
         this.nodes = new HashMap<>(nodes);
+        this.symbols = new SymbolTable(nodes);
+        this.nodesById = new NodeL[Math.max(1, nodes)];
     }
 
     public NodeL addNode(final String label) throws NodeAlreadyDefinedException {
         if (nodes.containsKey(label)) {
             throw new NodeAlreadyDefinedException(label);
         }
-        NodeL n = new NodeL(label);
+        final int id = symbols.add(label);
+        if (id >= nodesById.length) {
+            nodesById = Arrays.copyOf(nodesById, Math.max(id + 1, nodesById.length * 2));
+        }
+        NodeL n = new NodeL(label, id);
         nodes.put(label, n);
+        nodesById[id] = n;
         return n;
     }
 
     public void removeNode(final String label) throws NoSuchElementException {
         NodeL node = getNode(label);
         nodes.remove(label);
-        nodes.values().forEach(n -> n.removeEdgeTo(node));
+        nodesById[symbols.remove(label)] = null;
+        nodes.values().forEach(n -> {
+            n.removeEdgeTo(node);
+            n.incoming.removeIf(edge -> edge.destination == node);
+        });
     }
 
     public NodeL getNode(final String label) throws NoSuchElementException {
@@ -41,16 +54,25 @@ public class GraphList extends LoadingGraph {
         return node;
     }
 
+    private NodeL getNode(final int id) throws NoSuchElementException {
+        if (!symbols.isUsed(id)) {
+            throw new NoSuchElementException(String.format("NodeL %d does not exist.", id));
+        }
+        return nodesById[id];
+    }
+
     public void addEdge(final String src, final String dest, final int cost) {
         NodeL source = this.getNode(src);
         NodeL destination = this.getNode(dest);
         source.addEdge(new EdgeL(destination, cost));
+        destination.incoming.add(new EdgeL(source, cost));
     }
 
     public void removeEdge(final String src, final String dest) {
         NodeL source = this.getNode(src);
         NodeL destination = this.getNode(dest);
         source.removeEdgeTo(destination);
+        destination.removeIncomingFrom(source);
     }
 
     @Override
@@ -73,6 +95,55 @@ public class GraphList extends LoadingGraph {
         return getNode(label).getEdges();
     }
 
+    @Override
+    public int getNodeId(final String label) throws NoSuchElementException {
+        return symbols.getId(label);
+    }
+
+    @Override
+    public String getLabel(final int id) throws NoSuchElementException {
+        return symbols.getLabel(id);
+    }
+
+    @Override
+    public int getNodeIdBound() {
+        return symbols.getIdBound();
+    }
+
+    @Override
+    public List<Edge> getEdgesFor(final int id) throws NoSuchElementException {
+        return getNode(id).getEdges();
+    }
+
+    @Override
+    public int degree(final int id) throws NoSuchElementException {
+        return getNode(id).getEdgeCount();
+    }
+
+    @Override
+    public void forEachNeighbor(final int id, IntIntConsumer action) throws NoSuchElementException {
+        for (EdgeL edge : getNode(id).adjList) {
+            action.accept(edge.destination.id, edge.cost);
+        }
+    }
+
+    @Override
+    public boolean hasIncomingIndex() {
+        return true;
+    }
+
+    @Override
+    public boolean anyIncoming(final int id, IntIntPredicate predicate) {
+        if (id < 0 || id >= nodesById.length || nodesById[id] == null) {
+            return false;
+        }
+        for (EdgeL edge : nodesById[id].incoming) {
+            if (predicate.test(edge.destination.id, edge.cost)) {
+                return true;
+            }
+        }
+        return false;
+    }
 
     private static class EdgeL implements Edge {
         final private NodeL destination;
@@ -101,11 +172,15 @@ public class GraphList extends LoadingGraph {
 
     private static class NodeL implements Node {
         final private String label;
+        final private int id;
 
         private List<EdgeL> adjList = new ArrayList<>();
+        // Reverse index, the destination of these edges is the source of an edge to this node
+        private final List<EdgeL> incoming = new ArrayList<>();
 
-        NodeL(String label) {
+        NodeL(String label, int id) {
             this.label = label;
+            this.id = id;
         }
 
         void addEdge(EdgeL e) {
@@ -127,6 +202,15 @@ public class GraphList extends LoadingGraph {
             }
         }
 
+        void removeIncomingFrom(NodeL n) {
+            for (int i = 0; i < incoming.size(); i++) {
+                if (incoming.get(i).destination == n) {
+                    incoming.remove(i);
+                    return;
+                }
+            }
+        }
+
         int getEdgeCount() {
             return adjList.size();
         }
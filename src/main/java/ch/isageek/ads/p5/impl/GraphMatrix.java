@@ -1,7 +1,9 @@
 package ch.isageek.ads.p5.impl;
 
 import ch.isageek.ads.p5.Edge;
+import ch.isageek.ads.p5.IntIntConsumer;
 import ch.isageek.ads.p5.Node;
+import ch.isageek.ads.p5.SymbolTable;
 import ch.isageek.ads.p5.exception.NodeAlreadyDefinedException;
 
 import java.util.*;
@@ -10,20 +12,23 @@ import java.util.stream.IntStream;
 
 /**
  * This class uses 2 nested arraylists to simulate a matrix.
- * Additionally node labels are mapped to an index to access the matrix
+ * Additionally node labels are mapped to an index to access the matrix.
+ * The index is the node id of the {@link SymbolTable}, the row and column of a removed node are cleared and reused
+ * by the next added node instead of moving all following rows.
  **/
 public class GraphMatrix extends LoadingGraph {
 
     private List<List<Integer>> adjacencyMatrix = new ArrayList<>();
-    private Map<Integer, String> indexToNode = new HashMap<>();
-    private Map<String, Integer> nodeToIndex = new HashMap<>();
+    private SymbolTable symbols = new SymbolTable();
+    // Node handles by index, so the same node is returned every time
+    private List<MatrixNode> nodes = new ArrayList<>();
 
     public GraphMatrix() {
     }
 
     @Override
     public int getNumberOfNodes() {
-        return adjacencyMatrix.size();
+        return symbols.size();
     }
 
     @Override
@@ -33,41 +38,32 @@ public class GraphMatrix extends LoadingGraph {
 
     @Override
     public List<Node> getNodes() {
-        return IntStream.range(0, adjacencyMatrix.size()).mapToObj(this::toNode).collect(Collectors.toList());
+        return symbols.ids().mapToObj(this::toNode).collect(Collectors.toList());
     }
 
     @Override
     public List<Edge> getEdgesFor(String label) {
-        if (!nodeToIndex.containsKey(label)) {
+        if (!symbols.contains(label)) {
             throw new NoSuchElementException(String.format("Node %s does not exist.", label));
         }
-        final int index = nodeToIndex.get(label);
-        final List<Integer> edgeWeights = adjacencyMatrix.get(index);
-        return IntStream.range(0, edgeWeights.size())
-                .filter(idx -> edgeWeights.get(idx) != 0)
-                .mapToObj(idx -> new Edge() {
-                    @Override
-                    public Node getDestination() {
-                        return toNode(idx);
-                    }
+        return getEdgesFor(symbols.getId(label));
+    }
 
-                    @Override
-                    public int getCost() {
-                        return edgeWeights.get(idx);
-                    }
-                }).collect(Collectors.toList());
+    @Override
+    public List<Edge> getEdgesFor(final int index) throws NoSuchElementException {
+        return toNode(index).getEdges();
     }
 
     @Override
     public Node addNode(String label) throws NodeAlreadyDefinedException {
-        if (nodeToIndex.containsKey(label)) {
-            throw new NodeAlreadyDefinedException(label);
+        final int index = symbols.add(label);
+        if (index < adjacencyMatrix.size()) {
+            // The row and column of a removed node are already cleared
+            nodes.set(index, new MatrixNode(index));
+            return toNode(index);
         }
-        final int index = adjacencyMatrix.size();
         adjacencyMatrix.add(index, new ArrayList<>());
-
-        nodeToIndex.put(label, index);
-        indexToNode.put(index, label);
+        nodes.add(index, new MatrixNode(index));
 
         List<Integer> weights = adjacencyMatrix.get(index);
         IntStream.range(0, adjacencyMatrix.size()).forEach(idx -> {
@@ -79,8 +75,8 @@ public class GraphMatrix extends LoadingGraph {
 
     @Override
     public Node getNode(final String label) throws NoSuchElementException {
-        if (nodeToIndex.containsKey(label)) {
-            return toNode(nodeToIndex.get(label));
+        if (symbols.contains(label)) {
+            return toNode(symbols.getId(label));
         } else {
             throw new NoSuchElementException(String.format("Node %s does not exist", label));
         }
@@ -88,19 +84,12 @@ public class GraphMatrix extends LoadingGraph {
 
     @Override
     public void removeNode(final String label) throws NoSuchElementException {
-        if (nodeToIndex.containsKey(label)) {
-            final int index = nodeToIndex.get(label);
-            // Remove weights and node
-            adjacencyMatrix.forEach(weights -> weights.remove(index));
-            adjacencyMatrix.remove(index);
-
-            // Update indeces
-            IntStream.range(index+1, adjacencyMatrix.size())
-                    .forEach(idx -> {
-                        String idxNode = indexToNode.get(idx);
-                        indexToNode.put(idx-1, idxNode);
-                        nodeToIndex.put(idxNode, idx-1);
-                    });
+        if (symbols.contains(label)) {
+            final int index = symbols.remove(label);
+            nodes.set(index, null);
+            // Clear weights, the index is reused by the next node
+            adjacencyMatrix.forEach(weights -> weights.set(index, 0));
+            Collections.fill(adjacencyMatrix.get(index), 0);
         } else {
             throw new NoSuchElementException(String.format("Node %s does not exist", label));
         }
@@ -108,79 +97,143 @@ public class GraphMatrix extends LoadingGraph {
 
     @Override
     public void addEdge(String src, String dest, int cost) {
-        if (!nodeToIndex.containsKey(src) || !nodeToIndex.containsKey(dest)) {
+        if (!symbols.contains(src) || !symbols.contains(dest)) {
             throw new NoSuchElementException();
         }
-        adjacencyMatrix.get(nodeToIndex.get(src)).set(nodeToIndex.get(dest), cost);
+        adjacencyMatrix.get(symbols.getId(src)).set(symbols.getId(dest), cost);
     }
 
     @Override
     public void removeEdge(String src, String dest) {
-        if (!nodeToIndex.containsKey(src) || !nodeToIndex.containsKey(dest)) {
+        if (!symbols.contains(src) || !symbols.contains(dest)) {
             throw new NoSuchElementException();
         }
-        adjacencyMatrix.get(nodeToIndex.get(src)).set(nodeToIndex.get(dest), 0);
+        adjacencyMatrix.get(symbols.getId(src)).set(symbols.getId(dest), 0);
+    }
+
+    @Override
+    public int getNodeId(String label) throws NoSuchElementException {
+        return symbols.getId(label);
     }
 
+    @Override
+    public String getLabel(int id) throws NoSuchElementException {
+        return symbols.getLabel(id);
+    }
 
-    private Node toNode(int index) {
-        return toNode(index, new HashMap<>(adjacencyMatrix.size()));
+    @Override
+    public int getNodeIdBound() {
+        return symbols.getIdBound();
     }
-    private Node toNode(int index, Map<String, Node> nodes) {
 
-        if (adjacencyMatrix.size() <= index) {
+    @Override
+    public int degree(int id) throws NoSuchElementException {
+        symbols.getLabel(id);
+        return (int)adjacencyMatrix.get(id).stream().filter(value -> value != 0).count();
+    }
+
+    @Override
+    public void forEachNeighbor(int id, IntIntConsumer action) throws NoSuchElementException {
+        symbols.getLabel(id);
+        final List<Integer> weights = adjacencyMatrix.get(id);
+        for (int idx = 0; idx < weights.size(); idx++) {
+            final int cost = weights.get(idx);
+            if (cost != 0) {
+                action.accept(idx, cost);
+            }
+        }
+    }
+
+
+    private MatrixNode toNode(int index) {
+        if (!symbols.isUsed(index)) {
             throw new NoSuchElementException(String.format("Node %d does not exist", index));
         }
-        String label = indexToNode.get(index);
-        final List<Integer> edges = adjacencyMatrix.get(index);
-        if (!nodes.containsKey(label)) {
-            nodes.put(label, new Node() {
-                @Override
-                public String getValue() {
-                    return label;
-                }
+        return nodes.get(index);
+    }
 
-                @Override
-                public List<Edge> getEdges() {
-                    return IntStream.range(0, edges.size()).mapToObj(idx -> toEdge(idx, edges.get(idx), nodes)).filter(edge -> edge.getCost() != 0).collect(Collectors.toList());
-                }
+    /**
+     * Handle of a node, equal only to itself. The edges are read from the matrix when they are requested.
+     */
+    private class MatrixNode implements Node {
+        final private int index;
 
-                @Override
-                public int hashCode() {
-                    return Objects.hash(label, getEdges().size());
-                }
+        MatrixNode(int index) {
+            this.index = index;
+        }
 
-                @Override
-                public boolean equals(Object obj) {
-                    return Objects.equals(this.hashCode(), obj.hashCode());
-                }
-            });
+        @Override
+        public String getValue() {
+            checkCurrent();
+            return symbols.getLabel(index);
         }
 
-        return nodes.get(label);
-    }
+        @Override
+        public List<Edge> getEdges() {
+            checkCurrent();
+            final List<Integer> weights = adjacencyMatrix.get(index);
+            return IntStream.range(0, weights.size())
+                    .filter(idx -> weights.get(idx) != 0)
+                    .mapToObj(idx -> new MatrixEdge(index, idx, weights.get(idx)))
+                    .collect(Collectors.toList());
+        }
 
-    private Edge toEdge(int destIndex, int cost, Map<String, Node> nodes) {
-        return new Edge() {
-            @Override
-            public Node getDestination() {
-                return toNode(destIndex, nodes);
-            }
+        @Override
+        public String toString() {
+            return getValue();
+        }
 
-            @Override
-            public int getCost() {
-                return cost;
+        /**
+         * The index of a removed node is reused, so a handle of a removed node must not read it anymore
+         */
+        private void checkCurrent() {
+            if (nodes.get(index) != this) {
+                throw new NoSuchElementException("Node has been removed");
             }
+        }
+    }
 
-            @Override
-            public int hashCode() {
-                return Objects.hash(getDestination(), cost);
-            }
+    /**
+     * Edge of a cell of the matrix, the destination node is looked up when it is requested
+     */
+    private class MatrixEdge implements Edge {
+        final private int source;
+        final private int destination;
+        final private int cost;
+
+        MatrixEdge(int source, int destination, int cost) {
+            this.source = source;
+            this.destination = destination;
+            this.cost = cost;
+        }
 
-            @Override
-            public boolean equals(Object obj) {
-                return Objects.equals(this.hashCode(), obj.hashCode());
+        @Override
+        public Node getDestination() {
+            return toNode(destination);
+        }
+
+        @Override
+        public int getCost() {
+            return cost;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(source, destination, cost);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof MatrixEdge)) {
+                return false;
             }
-        };
+            final MatrixEdge other = (MatrixEdge) obj;
+            return source == other.source && destination == other.destination && cost == other.cost;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("-> %s: %d", getDestination(), cost);
+        }
     }
 }
@@ -0,0 +1,411 @@
+package ch.isageek.ads.p5.impl;
+
+import ch.isageek.ads.p5.*;
+import ch.isageek.ads.p5.exception.GraphParseException;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * A read-only graph over a memory mapped file in the {@link FileType#BINARY} format.
+ * Opening the file only maps it, nodes, edges and labels are read from the mapped arrays when they are requested.
+ * Labels are found with the hash index stored in the file, so no label is hashed while loading.
+ *
+ * The file consists of a header of {@link #HEADER_SIZE} bytes followed by little endian int arrays and the labels:
+ * <ul>
+ *     <li>header: magic, version, node count, edge count, index size, label bytes</li>
+ *     <li>offsets: node count + 1 entries, the edges of node {@code id} are at {@code offsets[id]} to
+ *     {@code offsets[id + 1]} (exclusive)</li>
+ *     <li>targets: edge count entries, the id of the destination of every edge</li>
+ *     <li>weights: edge count entries, the cost of every edge</li>
+ *     <li>label offsets: node count + 1 entries, the label of node {@code id} is at {@code labelOffsets[id]} to
+ *     {@code labelOffsets[id + 1]} (exclusive) in the label bytes</li>
+ *     <li>index: open addressing hash table with linear probing of {@code id + 1} by the hash code of the label,
+ *     0 is a free bucket</li>
+ *     <li>label bytes: all labels in UTF-8</li>
+ * </ul>
+ * As every array is mapped on its own, an array must not be larger than 2GB.
+ */
+public class MappedGraph implements Graph {
+
+    final static int MAGIC = 0x47534441;
+    private final static int VERSION = 1;
+    private final static int HEADER_SIZE = 24;
+    private final static int WRITE_BUFFER_SIZE = 1 << 16;
+
+    private int nodeCount;
+    private int edgeCount;
+    private IntBuffer offsets = IntBuffer.allocate(1);
+    private IntBuffer targets = IntBuffer.allocate(0);
+    private IntBuffer weights = IntBuffer.allocate(0);
+    private IntBuffer labelOffsets = IntBuffer.allocate(1);
+    private IntBuffer index = IntBuffer.allocate(1);
+    private ByteBuffer labels = ByteBuffer.allocate(0);
+
+    /**
+     * Creates an empty graph, use {@link #readFromFile(File)} to map a file
+     */
+    public MappedGraph() {
+    }
+
+    /**
+     * Maps a file written by {@link #write(Graph, File)}
+     * @param file the file to map
+     * @return the graph
+     * @throws IOException if the file cannot be opened
+     * @throws GraphParseException if the file is not a binary graph file
+     */
+    public static MappedGraph fromFile(File file) throws IOException, GraphParseException {
+        final MappedGraph graph = new MappedGraph();
+        graph.readFromFile(file);
+        return graph;
+    }
+
+    /**
+     * @param file the file to check
+     * @return true if the file starts with the magic number of the binary format
+     */
+    public static boolean isBinary(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            final ByteBuffer magic = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            while (magic.hasRemaining() && channel.read(magic, magic.position()) >= 0) {
+                // Read until the magic number is complete
+            }
+            return !magic.hasRemaining() && magic.getInt(0) == MAGIC;
+        }
+    }
+
+    /**
+     * Writes the graph in the {@link FileType#BINARY} format. The ids in the file are dense, nodes are numbered in
+     * the order of {@link Graph#getNodes()}.
+     * @param graph the graph to write
+     * @param file the file to write to, it is overwritten
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Graph graph, File file) throws IOException {
+        final List<Node> nodes = graph.getNodes();
+        final int nodeCount = nodes.size();
+        final int[] ids = new int[graph.getNodeIdBound()];
+        final byte[][] labelBytes = new byte[nodeCount][];
+        final int[] labelOffsets = new int[nodeCount + 1];
+        for (int id = 0; id < nodeCount; id++) {
+            final String label = nodes.get(id).getValue();
+            ids[graph.getNodeId(label)] = id;
+            labelBytes[id] = label.getBytes(StandardCharsets.UTF_8);
+            labelOffsets[id + 1] = Math.addExact(labelOffsets[id], labelBytes[id].length);
+        }
+        final int[] offsets = new int[nodeCount + 1];
+        for (int id = 0; id < nodeCount; id++) {
+            offsets[id + 1] = offsets[id] + graph.degree(graph.getNodeId(nodes.get(id).getValue()));
+        }
+        final int edgeCount = offsets[nodeCount];
+        final int[] targets = new int[edgeCount];
+        final int[] weights = new int[edgeCount];
+        for (int id = 0; id < nodeCount; id++) {
+            final int[] next = {offsets[id]};
+            graph.forEachNeighbor(graph.getNodeId(nodes.get(id).getValue()), (target, cost) -> {
+                targets[next[0]] = ids[target];
+                weights[next[0]] = cost;
+                next[0]++;
+            });
+        }
+        final int[] index = new int[indexSize(nodeCount)];
+        for (int id = 0; id < nodeCount; id++) {
+            int bucket = hash(nodes.get(id).getValue()) & (index.length - 1);
+            while (index[bucket] != 0) {
+                bucket = (bucket + 1) & (index.length - 1);
+            }
+            index[bucket] = id + 1;
+        }
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            final ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(nodeCount).putInt(edgeCount).putInt(index.length)
+                    .putInt(labelOffsets[nodeCount]);
+            for (int[] array : Arrays.asList(offsets, targets, weights, labelOffsets, index)) {
+                for (int value : array) {
+                    if (!buffer.hasRemaining()) {
+                        flush(channel, buffer);
+                    }
+                    buffer.putInt(value);
+                }
+            }
+            for (byte[] label : labelBytes) {
+                for (int written = 0; written < label.length; ) {
+                    if (!buffer.hasRemaining()) {
+                        flush(channel, buffer);
+                    }
+                    final int length = Math.min(buffer.remaining(), label.length - written);
+                    buffer.put(label, written, length);
+                    written += length;
+                }
+            }
+            flush(channel, buffer);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * Only binary files can be read, as the graph is read-only this is only possible while it is empty.
+     */
+    @Override
+    public void readFromFile(File file) throws IOException, GraphParseException {
+        if (this.nodeCount > 0) {
+            throw new UnsupportedOperationException("MappedGraph is read-only, it can only be read into an empty graph");
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (size < HEADER_SIZE) {
+                throw new GraphParseException(String.format("%s is not a binary graph file", file));
+            }
+            final ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt(0) != MAGIC) {
+                throw new GraphParseException(String.format("%s is not a binary graph file", file));
+            }
+            if (header.getInt(4) != VERSION) {
+                throw new GraphParseException(String.format("Unsupported binary graph version %d", header.getInt(4)));
+            }
+            final int nodes = header.getInt(8);
+            final int edges = header.getInt(12);
+            final int indexSize = header.getInt(16);
+            final int labelBytes = header.getInt(20);
+            final long expectedSize = HEADER_SIZE + 4L * (2L * (nodes + 1) + 2L * edges + indexSize) + labelBytes;
+            if (nodes < 0 || edges < 0 || indexSize < 1 || Integer.bitCount(indexSize) != 1 || labelBytes < 0 || size != expectedSize) {
+                throw new GraphParseException(String.format("Binary graph file %s is corrupt", file));
+            }
+            long position = HEADER_SIZE;
+            this.offsets = mapInts(channel, position, nodes + 1);
+            position += 4L * (nodes + 1);
+            this.targets = mapInts(channel, position, edges);
+            position += 4L * edges;
+            this.weights = mapInts(channel, position, edges);
+            position += 4L * edges;
+            this.labelOffsets = mapInts(channel, position, nodes + 1);
+            position += 4L * (nodes + 1);
+            this.index = mapInts(channel, position, indexSize);
+            position += 4L * indexSize;
+            this.labels = channel.map(FileChannel.MapMode.READ_ONLY, position, labelBytes);
+            this.nodeCount = nodes;
+            this.edgeCount = edges;
+        }
+    }
+
+    @Override
+    public int getNumberOfNodes() {
+        return this.nodeCount;
+    }
+
+    @Override
+    public int getNumberOfEdges() {
+        return this.edgeCount;
+    }
+
+    /**
+     * @return a read-only view of the nodes, the nodes are created when they are accessed
+     */
+    @Override
+    public List<Node> getNodes() {
+        return new AbstractList<Node>() {
+            @Override
+            public Node get(int id) {
+                return getNode(id);
+            }
+
+            @Override
+            public int size() {
+                return nodeCount;
+            }
+        };
+    }
+
+    @Override
+    public List<Edge> getEdgesFor(String label) throws NoSuchElementException {
+        return this.getEdgesFor(this.getNodeId(label));
+    }
+
+    @Override
+    public Node getNode(String label) throws NoSuchElementException {
+        return new MappedNode(this.getNodeId(label));
+    }
+
+    @Override
+    public int getNodeId(String label) throws NoSuchElementException {
+        final int mask = this.index.capacity() - 1;
+        for (int bucket = hash(label) & mask; this.index.get(bucket) != 0; bucket = (bucket + 1) & mask) {
+            final int id = this.index.get(bucket) - 1;
+            if (this.readLabel(id).equals(label)) {
+                return id;
+            }
+        }
+        throw new NoSuchElementException(String.format("Node %s does not exist", label));
+    }
+
+    @Override
+    public String getLabel(int id) throws NoSuchElementException {
+        return this.readLabel(this.checkId(id));
+    }
+
+    @Override
+    public int getNodeIdBound() {
+        return this.nodeCount;
+    }
+
+    @Override
+    public List<Edge> getEdgesFor(int id) throws NoSuchElementException {
+        return this.getNode(id).getEdges();
+    }
+
+    @Override
+    public int degree(int id) throws NoSuchElementException {
+        this.checkId(id);
+        return this.offsets.get(id + 1) - this.offsets.get(id);
+    }
+
+    @Override
+    public void forEachNeighbor(int id, IntIntConsumer action) throws NoSuchElementException {
+        this.checkId(id);
+        final int end = this.offsets.get(id + 1);
+        for (int edge = this.offsets.get(id); edge < end; edge++) {
+            action.accept(this.targets.get(edge), this.weights.get(edge));
+        }
+    }
+
+    @Override
+    public Node addNode(String label) {
+        throw new UnsupportedOperationException("MappedGraph is read-only");
+    }
+
+    @Override
+    public void removeNode(String label) {
+        throw new UnsupportedOperationException("MappedGraph is read-only");
+    }
+
+    @Override
+    public void addEdge(String src, String dest, int cost) {
+        throw new UnsupportedOperationException("MappedGraph is read-only");
+    }
+
+    @Override
+    public void removeEdge(String src, String dest) {
+        throw new UnsupportedOperationException("MappedGraph is read-only");
+    }
+
+    private MappedNode getNode(int id) throws NoSuchElementException {
+        return new MappedNode(this.checkId(id));
+    }
+
+    private int checkId(int id) throws NoSuchElementException {
+        if (id < 0 || id >= this.nodeCount) {
+            throw new NoSuchElementException(String.format("Node %d does not exist", id));
+        }
+        return id;
+    }
+
+    private String readLabel(int id) {
+        final int start = this.labelOffsets.get(id);
+        final byte[] bytes = new byte[this.labelOffsets.get(id + 1) - start];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = this.labels.get(start + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int hash(String label) {
+        final int hash = label.hashCode();
+        return hash ^ (hash >>> 16);
+    }
+
+    private static int indexSize(int nodeCount) {
+        // At most half of the buckets are used
+        return Integer.highestOneBit(Math.max(1, nodeCount) * 2 - 1) << 1;
+    }
+
+    private static IntBuffer mapInts(FileChannel channel, long position, int length) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, 4L * length).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Handle of a node, nodes with the same id are equal
+     */
+    private class MappedNode implements Node {
+        final int id;
+
+        MappedNode(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public String getValue() {
+            return readLabel(this.id);
+        }
+
+        @Override
+        public List<Edge> getEdges() {
+            final int start = offsets.get(this.id);
+            final int end = offsets.get(this.id + 1);
+            final List<Edge> edges = new ArrayList<>(end - start);
+            for (int edge = start; edge < end; edge++) {
+                edges.add(new MappedEdge(edge));
+            }
+            return edges;
+        }
+
+        @Override
+        public int hashCode() {
+            return this.id;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof MappedNode && ((MappedNode) obj).id == this.id && ((MappedNode) obj).graph() == MappedGraph.this;
+        }
+
+        private MappedGraph graph() {
+            return MappedGraph.this;
+        }
+
+        @Override
+        public String toString() {
+            return this.getValue();
+        }
+    }
+
+    private class MappedEdge implements Edge {
+        final int edge;
+
+        MappedEdge(int edge) {
+            this.edge = edge;
+        }
+
+        @Override
+        public Node getDestination() {
+            return new MappedNode(targets.get(this.edge));
+        }
+
+        @Override
+        public int getCost() {
+            return weights.get(this.edge);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("-> %s: %d", this.getDestination(), this.getCost());
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package ch.isageek.ads.p7;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+/**
+ * Base of the hashmaps which probe their keys the same way as {@link AdsHashTable}.
+ * Keys and values are stored in two parallel arrays, this class manages the key array while the subclasses
+ * manage an array of values (e.g. an Object[], int[] or long[]) which is accessed with the same index as the key.
+ * @param <K> the type of the keys
+ */
+abstract class AbstractAdsHashMap<K> {
+
+    private final static Object REMOVED = new Object();
+
+    final static int DEFAULT_SIZE = 10;
+    final static AdsHashTable.ProbingMode DEFAULT_MODE = AdsHashTable.ProbingMode.QUADRATIC;
+    private final static int GROW_FACTOR = 2;
+    private final static float DEFAULT_LOADFACTOR = 0.8f;
+    private final static float MIN_LOADFACTOR = 0.01f;
+    private final static float MAX_LOADFACTOR = 1.0f;
+
+    private final AdsHashTable.ProbingMode probingMode;
+    private Object[] keys;
+    // Number of keys stored in the table
+    private int size;
+    // Number of buckets which are not null, e.g. keys and removed keys
+    private int used;
+    private float loadFactorForResize;
+
+    AbstractAdsHashMap(int initialSize, AdsHashTable.ProbingMode probingMode) {
+        this.probingMode = probingMode;
+        this.allocateTable(initialSize == 0 ? 1 : initialSize);
+        this.loadFactorForResize = DEFAULT_LOADFACTOR;
+    }
+
+    private void allocateTable(int size) {
+        final int capacity = this.probingMode.tableSize(size);
+        this.keys = new Object[capacity];
+        this.allocateValues(capacity);
+        this.size = 0;
+        this.used = 0;
+    }
+
+    /**
+     * Allocates a new array of values with the given capacity
+     * @param capacity the length of the key array
+     */
+    abstract void allocateValues(int capacity);
+
+    /**
+     * @return the current array of values
+     */
+    abstract Object values();
+
+    /**
+     * Copies a value from an old array of values (as returned by {@link #values()}) to the current one
+     * @param oldValues the old array of values
+     * @param from the index in the old array
+     * @param to the index in the current array
+     */
+    abstract void moveValue(Object oldValues, int from, int to);
+
+    /**
+     * Resets the value at the index, so the value can be garbage collected and a new key starts with the default value
+     * @param index the index to reset
+     */
+    abstract void clearValue(int index);
+
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size() == 0;
+    }
+
+    public boolean containsKey(@NotNull K key) {
+        return this.indexOf(key) != -1;
+    }
+
+    /**
+     * Removes the key and its value from the map
+     * @param key the key to remove
+     * @return true if the key was in the map, false otherwise
+     */
+    public boolean remove(@NotNull K key) {
+        final int found = this.indexOf(key);
+        if (found != -1) {
+            this.keys[found] = REMOVED;
+            this.clearValue(found);
+            this.size--;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns a {@link Stream} of all keys in the map in the order they are stored
+     * @return a {@link Stream} of all keys
+     */
+    @SuppressWarnings("unchecked")
+    public Stream<K> keys() {
+        return Arrays.stream(this.keys).filter(AbstractAdsHashMap::isKey).map(key -> (K) key);
+    }
+
+    /**
+     * Set the loadfactor which the table uses to grow
+     * @param loadFactor the loadfactor, should be between 0.01 and 1 (values above will be 1, values below will be 0.01)
+     */
+    public void setLoadFactorForResize(float loadFactor) {
+        this.loadFactorForResize = Math.max(MIN_LOADFACTOR, Math.min(MAX_LOADFACTOR, loadFactor));
+    }
+
+    final boolean hasKeyAt(int index) {
+        return isKey(this.keys[index]);
+    }
+
+    @SuppressWarnings("unchecked")
+    final K keyAt(int index) {
+        return (K) this.keys[index];
+    }
+
+    final int capacity() {
+        return this.keys.length;
+    }
+
+    /**
+     * Finds the index of the key
+     * @param key the key to find
+     * @return the index of the key or -1 if the map does not contain it
+     */
+    final int indexOf(@NotNull K key) {
+        final int originalIndex = this.generateIndex(key);
+        int idx = originalIndex;
+        for (int count = 0; count < this.keys.length; count++) {
+            // If keys[idx] is null it has never been used so no probing ever got to this position
+            if (this.keys[idx] == null) {
+                return -1;
+            }
+            if (key.equals(this.keys[idx])) {
+                return idx;
+            }
+            idx = this.getNextPossibleIndex(originalIndex, count);
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the index of the key and inserts it if the map does not contain it yet, growing the table if necessary.
+     * @param key the key to find or insert
+     * @return the index of the key if it already existed, <code>-(index + 1)</code> if it was just inserted
+     */
+    final int insert(@NotNull K key) {
+        if (this.getCurrentLoad() >= this.loadFactorForResize) {
+            this.grow();
+        }
+        int index;
+        while ((index = this.insertAt(key)) == Integer.MIN_VALUE) {
+            this.grow();
+        }
+        return index;
+    }
+
+    private int insertAt(@NotNull K key) {
+        final int originalIndex = this.generateIndex(key);
+        int index = originalIndex;
+        int firstRemoved = -1;
+        for (int count = 0; count < this.keys.length; count++) {
+            final Object current = this.keys[index];
+            if (current == null) {
+                if (firstRemoved == -1) {
+                    this.used++;
+                } else {
+                    index = firstRemoved;
+                }
+                return this.claim(key, index);
+            }
+            if (current == REMOVED) {
+                if (firstRemoved == -1) {
+                    firstRemoved = index;
+                }
+            } else if (key.equals(current)) {
+                return index;
+            }
+            index = this.getNextPossibleIndex(originalIndex, count);
+        }
+        return firstRemoved == -1 ? Integer.MIN_VALUE : this.claim(key, firstRemoved);
+    }
+
+    private int claim(@NotNull K key, int index) {
+        this.keys[index] = key;
+        this.size++;
+        return -(index + 1);
+    }
+
+    private int generateIndex(@NotNull K key) {
+        return this.probingMode.index(key.hashCode(), this.keys.length);
+    }
+
+    private int getNextPossibleIndex(final int original, final int iteration) {
+        return this.probingMode.nextIndex(original, iteration, this.keys.length);
+    }
+
+    private float getCurrentLoad() {
+        return this.used / (float) this.keys.length;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void grow() {
+        final Object[] oldKeys = this.keys;
+        final Object oldValues = this.values();
+        // Removed keys count towards the load, if they are the reason to grow we just clean up the table
+        final boolean onlyRemoved = this.size < this.loadFactorForResize * oldKeys.length / GROW_FACTOR;
+        this.allocateTable(onlyRemoved ? oldKeys.length : oldKeys.length * GROW_FACTOR);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (isKey(oldKeys[i])) {
+                this.moveValue(oldValues, i, -this.insertAt((K) oldKeys[i]) - 1);
+            }
+        }
+    }
+
+    private static boolean isKey(Object key) {
+        return key != null && key != REMOVED;
+    }
+}
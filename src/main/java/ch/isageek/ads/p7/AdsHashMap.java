@@ -0,0 +1,150 @@
+package ch.isageek.ads.p7;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * A hashmap using the probing strategies of {@link AdsHashTable}.
+ * Keys and values are stored in two parallel arrays, so no entry objects are allocated.
+ * <b>null</b> values are not stored, like in {@link java.util.Map#merge} a <b>null</b> value removes the key.
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+public class AdsHashMap<K, V> extends AbstractAdsHashMap<K> {
+
+    private Object[] values;
+
+    public AdsHashMap() {
+        this(DEFAULT_SIZE, DEFAULT_MODE);
+    }
+
+    public AdsHashMap(int initialSize) {
+        this(initialSize, DEFAULT_MODE);
+    }
+
+    public AdsHashMap(AdsHashTable.ProbingMode probingMode) {
+        this(DEFAULT_SIZE, probingMode);
+    }
+
+    public AdsHashMap(int initialSize, AdsHashTable.ProbingMode probingMode) {
+        super(initialSize, probingMode);
+    }
+
+    @Override
+    void allocateValues(int capacity) {
+        this.values = new Object[capacity];
+    }
+
+    @Override
+    Object values() {
+        return this.values;
+    }
+
+    @Override
+    void moveValue(Object oldValues, int from, int to) {
+        this.values[to] = ((Object[]) oldValues)[from];
+    }
+
+    @Override
+    void clearValue(int index) {
+        this.values[index] = null;
+    }
+
+    /**
+     * Returns the value of the key
+     * @param key the key to find
+     * @return the value of the key or <b>null</b> if the map does not contain the key
+     */
+    @Nullable
+    public V get(@NotNull K key) {
+        final int index = this.indexOf(key);
+        return index == -1 ? null : this.valueAt(index);
+    }
+
+    /**
+     * Sets the value of the key
+     * @param key the key
+     * @param value the new value, <b>null</b> removes the key
+     * @return the previous value or <b>null</b> if the map did not contain the key
+     */
+    @Nullable
+    public V put(@NotNull K key, @Nullable V value) {
+        if (value == null) {
+            final V previous = this.get(key);
+            this.remove(key);
+            return previous;
+        }
+        final int index = this.insert(key);
+        if (index < 0) {
+            this.values[-index - 1] = value;
+            return null;
+        }
+        final V previous = this.valueAt(index);
+        this.values[index] = value;
+        return previous;
+    }
+
+    /**
+     * Returns the value of the key and computes it if the map does not contain the key yet
+     * @param key the key
+     * @param mappingFunction computes the value for a missing key, if it returns <b>null</b> nothing is stored
+     * @return the existing or computed value
+     */
+    @Nullable
+    public V computeIfAbsent(@NotNull K key, @NotNull Function<? super K, ? extends V> mappingFunction) {
+        final int index = this.indexOf(key);
+        if (index != -1) {
+            return this.valueAt(index);
+        }
+        final V value = mappingFunction.apply(key);
+        if (value != null) {
+            final int slot = -this.insert(key) - 1;
+            this.values[slot] = value;
+        }
+        return value;
+    }
+
+    /**
+     * Stores the value if the map does not contain the key, otherwise combines the existing value with the given one
+     * @param key the key
+     * @param value the value to store or combine with the existing one
+     * @param remappingFunction combines the existing and the given value, if it returns <b>null</b> the key is removed
+     * @return the new value of the key
+     */
+    @Nullable
+    public V merge(@NotNull K key, @NotNull V value, @NotNull BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        final int index = this.insert(key);
+        if (index < 0) {
+            this.values[-index - 1] = value;
+            return value;
+        }
+        final V merged = remappingFunction.apply(this.valueAt(index), value);
+        if (merged == null) {
+            this.remove(key);
+        } else {
+            this.values[index] = merged;
+        }
+        return merged;
+    }
+
+    /**
+     * Calls the action for every key and its value in the order they are stored
+     * @param action the action to call
+     */
+    public void forEach(@NotNull BiConsumer<? super K, ? super V> action) {
+        for (int i = 0; i < this.capacity(); i++) {
+            if (this.hasKeyAt(i)) {
+                action.accept(this.keyAt(i), this.valueAt(i));
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private V valueAt(int index) {
+        return (V) this.values[index];
+    }
+}
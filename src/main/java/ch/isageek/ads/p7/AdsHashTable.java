@@ -5,7 +5,8 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
-import java.util.function.Function;
+import java.util.function.Consumer;
+import java.util.function.IntUnaryOperator;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
@@ -18,10 +19,31 @@ public class AdsHashTable<T> implements HashTable<T> {
     private final static float MIN_LOADFACTOR = 0.01f;
     private final static float MAX_LOADFACTOR = 1.0f;
     private final static ProbingMode DEFAULT_MODE = ProbingMode.QUADRATIC;
+    // Number of buckets moved from the old to the new table on every operation while resizing incrementally
+    private final static int MIGRATION_STEP = 8;
+    // Minimum number of elements for addAll to place them in parallel
+    private final static int PARALLEL_THRESHOLD = 1 << 16;
+    // The number of elements is counted for blocks of 2^BLOCK_SHIFT buckets, so iterating can skip empty blocks
+    private final static int BLOCK_SHIFT = 6;
+    private final static int BLOCK_SIZE = 1 << BLOCK_SHIFT;
 
     private final ProbingMode probingMode;
     private Element<T>[] table;
+    // Number of elements in every block of table
+    private int[] occupancy;
     private float loadFactorForResize;
+    private int count;
+
+    private boolean incrementalResize;
+    // While resizing incrementally the elements not yet moved to table are still stored in oldTable
+    private Element<T>[] oldTable;
+    private int migrationIndex;
+
+    // Statistics, plain counters so they can stay enabled
+    private final long[] insertProbes = new long[HashTableStatistics.HISTOGRAM_BUCKETS];
+    private final long[] lookupProbes = new long[HashTableStatistics.HISTOGRAM_BUCKETS];
+    private long resizeCount;
+    private long growNanos;
 
     public AdsHashTable() {
         this(DEFAULT_SIZE, DEFAULT_MODE);
@@ -29,13 +51,17 @@ public class AdsHashTable<T> implements HashTable<T> {
 
     public AdsHashTable(int initialSize, ProbingMode probingMode) {
         this.probingMode = probingMode;
-        this.allocateTable(initialSize == 0 ? 1 : initialSize);
+        this.setTable(this.allocateTable(initialSize == 0 ? 1 : initialSize));
         this.loadFactorForResize = DEFAULT_LOADFACTOR;
     }
 
-    @SuppressWarnings("unchecked")
-    private void allocateTable(int size) {
-        this.table = new Element[this.probingMode.tableSize(size)];
+    private Element<T>[] allocateTable(int size) {
+        return this.allocateExactly(this.probingMode.tableSize(size));
+    }
+
+    private void setTable(Element<T>[] table) {
+        this.table = table;
+        this.occupancy = new int[(table.length + BLOCK_SIZE - 1) >>> BLOCK_SHIFT];
     }
 
     public AdsHashTable(int initialSize) {
@@ -53,43 +79,64 @@ public class AdsHashTable<T> implements HashTable<T> {
 
     @Override
     public int size() {
-        return (int) this.stream().filter(Objects::nonNull).count();
+        return this.count;
     }
 
+    /**
+     * {@inheritDoc}
+     * While the table is resized incrementally the buckets of the new table are followed by the buckets of the old table.
+     */
     @Override
     public Stream<T> stream() {
-        return Arrays.stream(this.table).map(this::unpackElement);
+        final Stream<Element<T>> buckets = this.oldTable == null
+                ? Arrays.stream(this.table)
+                : Stream.concat(Arrays.stream(this.table), Arrays.stream(this.oldTable));
+        return buckets.map(this::unpackElement);
     }
 
     @Override
     public void add(@NotNull T element) {
+        this.migrate();
         if (this.getCurrentLoad() >= this.loadFactorForResize) {
             this.grow();
         }
-        final int originalIndex = this.generateIndex(element);
+        final int probes = this.place(this.table, new Element<>(element));
+        this.insertProbes[HashTableStatistics.histogramBucket(probes)]++;
+        this.count++;
+    }
+
+    /**
+     * Places the element in the first empty bucket of its probing sequence
+     * @return the number of buckets probed after the first one
+     */
+    private int place(Element<T>[] table, Element<T> element) {
+        final int originalIndex = this.generateIndex(table, element.value);
         int index = originalIndex;
         int count = 0;
-        while (!this.insertAt(element, index)) {
-            index = this.getNextPossibleIndex(originalIndex, count);
+        while (!this.insertAt(table, element, index)) {
+            index = this.getNextPossibleIndex(table, originalIndex, count);
             count++;
         }
+        return count;
     }
 
-    private int generateIndex(@NotNull T element) {
-        return element.hashCode() % table.length;
+    private int generateIndex(Element<T>[] table, @NotNull T element) {
+        return this.probingMode.index(element.hashCode(), table.length);
     }
 
-    private boolean insertAt(@NotNull T element, final int index) {
-        final int idx = index % this.table.length;
-        if (Element.isEmpty(this.table[idx])) {
-            this.table[idx] = new Element<>(element);
+    private boolean insertAt(Element<T>[] table, Element<T> element, final int index) {
+        if (Element.isEmpty(table[index])) {
+            table[index] = element;
+            if (table == this.table) {
+                this.occupancy[index >>> BLOCK_SHIFT]++;
+            }
             return true;
         }
         return false;
     }
 
-    private int getNextPossibleIndex(final int original, final int iteration) {
-        return Math.floorMod(original + this.probingMode.stepSize(iteration), this.table.length);
+    private int getNextPossibleIndex(Element<T>[] table, final int original, final int iteration) {
+        return this.probingMode.nextIndex(original, iteration, table.length);
     }
 
     private float getCurrentLoad() {
@@ -97,41 +144,192 @@ public class AdsHashTable<T> implements HashTable<T> {
     }
 
     private void grow() {
-        List<T> elements = this.stream().filter(Objects::nonNull).collect(Collectors.toList());
-        this.allocateTable(this.table.length * GROW_FACTOR);
-        this.addAll(elements);
+        if (this.incrementalResize) {
+            final long start = System.nanoTime();
+            this.resizeCount++;
+            // The previous resize has to be completed before the next one can start
+            this.completeMigration();
+            this.oldTable = this.table;
+            this.migrationIndex = 0;
+            this.setTable(this.allocateTable(this.oldTable.length * GROW_FACTOR));
+            this.growNanos += System.nanoTime() - start;
+        } else {
+            this.resize(this.table.length * GROW_FACTOR);
+        }
+    }
+
+    private void resize(int minSize) {
+        final long start = System.nanoTime();
+        this.resizeCount++;
+        final Element<T>[] elements = this.table;
+        this.setTable(this.allocateTable(minSize));
+        Arrays.stream(elements).filter(Element::notEmpty).forEach(element -> this.place(this.table, element));
+        this.growNanos += System.nanoTime() - start;
     }
 
+    /**
+     * Moves at most {@link #MIGRATION_STEP} buckets from the old table to the new one, if the table is resized incrementally
+     */
+    private void migrate() {
+        if (this.oldTable == null) {
+            return;
+        }
+        final int end = Math.min(this.migrationIndex + MIGRATION_STEP, this.oldTable.length);
+        for (; this.migrationIndex < end; this.migrationIndex++) {
+            final Element<T> element = this.oldTable[this.migrationIndex];
+            if (Element.notEmpty(element)) {
+                this.place(this.table, element);
+                // The bucket is still needed to probe past it, so it is only marked as removed
+                this.oldTable[this.migrationIndex] = new Element<>(null);
+            }
+        }
+        if (this.migrationIndex == this.oldTable.length) {
+            this.oldTable = null;
+        }
+    }
+
+    private void completeMigration() {
+        while (this.oldTable != null) {
+            this.migrate();
+        }
+    }
+
+    /**
+     * Enables or disables incremental resizing.
+     * When enabled the table does not move all elements at once when it grows, instead the old table is kept and
+     * every operation moves a bounded number of buckets to the new table, lookups use both tables until all are moved.
+     * This avoids long pauses when a big table grows, at the cost of slightly slower operations while resizing.
+     * @param incrementalResize true to resize incrementally
+     */
+    public void setIncrementalResize(boolean incrementalResize) {
+        if (!incrementalResize) {
+            this.completeMigration();
+        }
+        this.incrementalResize = incrementalResize;
+    }
+
+    /**
+     * {@inheritDoc}
+     * The table is resized at most once, to fit all elements with the current loadfactor.
+     * Big collections are placed in parallel: the table is split into one range of buckets per thread and every thread
+     * places the elements whose probing sequence stays in its range, the remaining elements are added afterwards.
+     * Elements placed in parallel are not counted in the insert probe histogram of {@link #getStatistics()}.
+     */
     @Override
     public void addAll(@NotNull Collection<T> elements) {
-        elements.forEach(this::add);
+        this.completeMigration();
+        final int required = this.count + elements.size();
+        if (required >= this.loadFactorForResize * this.table.length) {
+            this.resize((int) Math.ceil(required / this.loadFactorForResize) + 1);
+        }
+        if (elements.size() >= PARALLEL_THRESHOLD && Runtime.getRuntime().availableProcessors() > 1) {
+            this.addAllParallel(elements);
+        } else {
+            elements.forEach(this::add);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void addAllParallel(@NotNull Collection<T> elements) {
+        final Element<T>[] table = this.table;
+        final int parts = Runtime.getRuntime().availableProcessors();
+        // Every range covers whole blocks, so no two threads update the occupancy of the same block
+        final int rangeSize = ((table.length + parts - 1) / parts + BLOCK_SIZE - 1) & -BLOCK_SIZE;
+        final Object[] values = elements.toArray();
+        final int[] homes = new int[values.length];
+        IntStream.range(0, values.length).parallel().forEach(idx -> homes[idx] = this.generateIndex(table, (T) values[idx]));
+
+        // Sort the elements by the range of their first bucket
+        final int[] partStart = new int[parts + 1];
+        for (int home : homes) {
+            partStart[home / rangeSize + 1]++;
+        }
+        for (int part = 0; part < parts; part++) {
+            partStart[part + 1] += partStart[part];
+        }
+        final int[] next = Arrays.copyOf(partStart, parts);
+        final int[] sorted = new int[values.length];
+        for (int idx = 0; idx < values.length; idx++) {
+            sorted[next[homes[idx] / rangeSize]++] = idx;
+        }
+
+        final List<List<Element<T>>> overflow = IntStream.range(0, parts).parallel().mapToObj(part -> {
+            final int start = part * rangeSize;
+            final int end = Math.min(start + rangeSize, table.length);
+            final List<Element<T>> remaining = new ArrayList<>();
+            for (int idx = partStart[part]; idx < partStart[part + 1]; idx++) {
+                final Element<T> element = new Element<>((T) values[sorted[idx]]);
+                if (!this.placeInRange(table, element, homes[sorted[idx]], start, end)) {
+                    remaining.add(element);
+                }
+            }
+            return remaining;
+        }).collect(Collectors.toList());
+        overflow.forEach(remaining -> remaining.forEach(element -> this.place(table, element)));
+        this.count += values.length;
+    }
+
+    /**
+     * Places the element like {@link #place} but only in the buckets from start (inclusive) to end (exclusive)
+     * @return false if the probing sequence left the range before an empty bucket was found
+     */
+    private boolean placeInRange(Element<T>[] table, Element<T> element, final int originalIndex, final int start, final int end) {
+        int index = originalIndex;
+        for (int count = 0; count < table.length; count++) {
+            if (index < start || index >= end) {
+                return false;
+            }
+            if (this.insertAt(table, element, index)) {
+                return true;
+            }
+            index = this.getNextPossibleIndex(table, originalIndex, count);
+        }
+        return false;
     }
 
     @Override
     public boolean contains(@NotNull T element) {
-        return this.find(element, this.generateIndex(element)) != -1;
+        this.migrate();
+        return this.find(this.table, element) != -1
+                || (this.oldTable != null && this.find(this.oldTable, element) != -1);
     }
 
-    private int find(@NotNull T element, final int originalIndex) {
+    private int find(Element<T>[] table, @NotNull T element) {
+        final int originalIndex = this.generateIndex(table, element);
         int idx = originalIndex;
-        for (int count = 0; count < this.table.length; count++) {
+        for (int count = 0; count < table.length; count++) {
             // If table[idx] is null it has never been allocated so no probing ever got to this position
-            if (this.table[idx] == null) {
+            if (table[idx] == null) {
+                this.lookupProbes[HashTableStatistics.histogramBucket(count)]++;
                 return -1;
             }
-            if (this.table[idx].contains(element)) {
+            if (table[idx].contains(element)) {
+                this.lookupProbes[HashTableStatistics.histogramBucket(count)]++;
                 return idx;
             }
-            idx = getNextPossibleIndex(originalIndex, count);
+            idx = getNextPossibleIndex(table, originalIndex, count);
         }
+        this.lookupProbes[HashTableStatistics.histogramBucket(table.length)]++;
         return -1;
     }
 
     @Override
     public boolean remove(@NotNull T element) {
-        int found = this.find(element, this.generateIndex(element));
+        this.migrate();
+        if (this.removeFrom(this.table, element) || (this.oldTable != null && this.removeFrom(this.oldTable, element))) {
+            this.count--;
+            return true;
+        }
+        return false;
+    }
+
+    private boolean removeFrom(Element<T>[] table, @NotNull T element) {
+        int found = this.find(table, element);
         if (found != -1) {
-            this.table[found].value = null;
+            table[found].value = null;
+            if (table == this.table) {
+                this.occupancy[found >>> BLOCK_SHIFT]--;
+            }
             return true;
         }
         return false;
@@ -142,6 +340,118 @@ public class AdsHashTable<T> implements HashTable<T> {
         this.loadFactorForResize = Math.max(MIN_LOADFACTOR, Math.min(MAX_LOADFACTOR, loadFactor));
     }
 
+    /**
+     * Returns a snapshot of the statistics of the table.
+     * The probe lengths, resizes and the time spent growing are counted while the table is used, cluster length and
+     * removed buckets are computed from the current table when this method is called.
+     * @return the statistics of the table
+     */
+    public HashTableStatistics getStatistics() {
+        int maxCluster = 0;
+        int cluster = 0;
+        int removed = 0;
+        for (Element<T> bucket : this.table) {
+            cluster = bucket == null ? 0 : cluster + 1;
+            maxCluster = Math.max(maxCluster, cluster);
+            if (bucket != null && bucket.value == null) {
+                removed++;
+            }
+        }
+        // A cluster at the end of the table continues at the start
+        if (cluster > 0 && cluster < this.table.length) {
+            for (int idx = 0; this.table[idx] != null; idx++) {
+                cluster++;
+            }
+            maxCluster = Math.max(maxCluster, cluster);
+        }
+        return new HashTableStatistics(this.insertProbes, this.lookupProbes, maxCluster, removed, this.table.length, this.count, this.resizeCount, this.growNanos);
+    }
+
+    /**
+     * Resets the probe histograms, the resize count and the time spent growing
+     */
+    public void resetStatistics() {
+        Arrays.fill(this.insertProbes, 0);
+        Arrays.fill(this.lookupProbes, 0);
+        this.resizeCount = 0;
+        this.growNanos = 0;
+    }
+
+    ProbingMode getProbingMode() {
+        return this.probingMode;
+    }
+
+    float getLoadFactorForResize() {
+        return this.loadFactorForResize;
+    }
+
+    boolean isIncrementalResize() {
+        return this.incrementalResize;
+    }
+
+    /**
+     * Completes a pending incremental resize, so all buckets are in one table, see {@link HashTableSnapshot}
+     * @return the number of buckets
+     */
+    int prepareSnapshot() {
+        this.completeMigration();
+        return this.table.length;
+    }
+
+    /**
+     * @return true if the bucket never held an element
+     */
+    boolean isFreeAt(int index) {
+        return this.table[index] == null;
+    }
+
+    @Nullable
+    T valueAt(int index) {
+        return this.unpackElement(this.table[index]);
+    }
+
+    /**
+     * Replaces the table with an empty one of exactly the given number of buckets, see {@link HashTableSnapshot}
+     * @return false if the probing mode would never create a table of that size
+     */
+    boolean restoreCapacity(int capacity) {
+        final boolean valid = capacity > 0 && (this.probingMode.tableSize(capacity) == capacity || this.probingMode.tableSize(capacity - 1) == capacity);
+        if (valid) {
+            this.oldTable = null;
+            this.setTable(this.allocateExactly(capacity));
+            this.count = 0;
+        }
+        return valid;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Element<T>[] allocateExactly(int capacity) {
+        return new Element[capacity];
+    }
+
+    /**
+     * Restores a bucket of a table with the capacity of {@link #restoreCapacity}, <b>null</b> restores a removed element
+     */
+    void restoreBucket(int index, @Nullable T value) {
+        this.table[index] = new Element<>(value);
+        if (value != null) {
+            this.occupancy[index >>> BLOCK_SHIFT]++;
+            this.count++;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * The {@link Spliterator} splits the buckets in halves, both knowing their exact number of elements, and skips
+     * blocks of empty buckets. A pending incremental resize is completed first.
+     * The table must not be modified while the {@link Spliterator} is used.
+     */
+    @Override
+    public Spliterator<T> spliterator() {
+        this.completeMigration();
+        return new ElementSpliterator(this.table, this.occupancy, 0, this.occupancy.length, this.count);
+    }
+
     @Override
     public Iterator<T> iterator() {
         return this.stream().iterator();
@@ -152,7 +462,13 @@ public class AdsHashTable<T> implements HashTable<T> {
     }
 
     public enum ProbingMode {
-        LINEAR(i -> i + 1, minSize -> minSize),
+        LINEAR(i -> i + 1, minSize -> minSize, false),
+        /**
+         * Linear probing on a table with a power of two length.
+         * The hashcode is mixed before it is used, so weak hashcodes (e.g. consecutive numbers or multiples of
+         * the table length) do not form clusters, and the index is computed with a bitmask instead of a division.
+         */
+        LINEAR_SPREAD(i -> i + 1, ProbingMode::nextPowerOfTwo, true),
         QUADRATIC(
                 i -> (i % 2 == 0 ? 1 : -1) * (int) Math.pow(i / 2 + 1, 2),
                 minSize -> {
@@ -162,22 +478,146 @@ public class AdsHashTable<T> implements HashTable<T> {
                         }
                     }
                     throw new RuntimeException(String.format("AdsHashTable only supports up to %d elements", QuadraticProbe.QUADRATIC_PROBING_HASH_TABLE_SIZE_LIST.get(QuadraticProbe.QUADRATIC_PROBING_HASH_TABLE_SIZE_LIST.size() - 1)));
-                });
+                }, false);
 
-        private Function<Integer, Integer> step;
-        private Function<Integer, Integer> table;
+        private final static int MAX_POWER_OF_TWO = 1 << 30;
 
-        ProbingMode(Function<Integer, Integer> step, Function<Integer, Integer> table) {
+        private IntUnaryOperator step;
+        private IntUnaryOperator table;
+        private boolean powerOfTwo;
+
+        ProbingMode(IntUnaryOperator step, IntUnaryOperator table, boolean powerOfTwo) {
             this.step = step;
             this.table = table;
+            this.powerOfTwo = powerOfTwo;
+        }
+
+        int stepSize(int iteration) {
+            return this.step.applyAsInt(iteration);
+        }
+
+        int tableSize(int minSize) {
+            return this.table.applyAsInt(minSize);
+        }
+
+        /**
+         * @return the largest minimal size accepted by {@link #tableSize(int)}
+         */
+        int maxSize() {
+            switch (this) {
+                case LINEAR_SPREAD:
+                    return MAX_POWER_OF_TWO;
+                case QUADRATIC:
+                    return QuadraticProbe.QUADRATIC_PROBING_HASH_TABLE_SIZE_LIST.get(QuadraticProbe.QUADRATIC_PROBING_HASH_TABLE_SIZE_LIST.size() - 1) - 1;
+                default:
+                    return Integer.MAX_VALUE;
+            }
+        }
+
+        /**
+         * Computes the first bucket to probe
+         * @param hashCode the hashcode of the element
+         * @param length the length of the table
+         * @return the index of the first bucket
+         */
+        int index(int hashCode, int length) {
+            return this.powerOfTwo ? spread(hashCode) & (length - 1) : Math.floorMod(hashCode, length);
+        }
+
+        /**
+         * Computes the next bucket to probe
+         * @param original the index of the first bucket
+         * @param iteration the number of buckets already probed after the first one
+         * @param length the length of the table
+         * @return the index of the next bucket
+         */
+        int nextIndex(int original, int iteration, int length) {
+            final int next = original + this.stepSize(iteration);
+            return this.powerOfTwo ? next & (length - 1) : Math.floorMod(next, length);
+        }
+
+        /**
+         * Mixes all bits of the hashcode into the lower bits (the finalizer of murmur3)
+         * @param hashCode the hashcode to mix
+         * @return the mixed hashcode
+         */
+        static int spread(int hashCode) {
+            int h = hashCode;
+            h ^= h >>> 16;
+            h *= 0x85ebca6b;
+            h ^= h >>> 13;
+            h *= 0xc2b2ae35;
+            h ^= h >>> 16;
+            return h;
+        }
+
+        private static int nextPowerOfTwo(int minSize) {
+            if (minSize > MAX_POWER_OF_TWO) {
+                throw new RuntimeException(String.format("AdsHashTable only supports up to %d elements", MAX_POWER_OF_TWO));
+            }
+            return minSize <= 1 ? 1 : Integer.highestOneBit(minSize - 1) << 1;
+        }
+    }
+
+    private class ElementSpliterator implements Spliterator<T> {
+        private final Element<T>[] table;
+        private final int[] occupancy;
+        private int index;
+        private int endBlock;
+        private long remaining;
+
+        ElementSpliterator(Element<T>[] table, int[] occupancy, int block, int endBlock, long remaining) {
+            this.table = table;
+            this.occupancy = occupancy;
+            this.index = block << BLOCK_SHIFT;
+            this.endBlock = endBlock;
+            this.remaining = remaining;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            // The number of remaining elements is exact, so the end of the range never has to be checked
+            while (this.remaining > 0) {
+                if ((this.index & (BLOCK_SIZE - 1)) == 0 && this.occupancy[this.index >>> BLOCK_SHIFT] == 0) {
+                    this.index += BLOCK_SIZE;
+                    continue;
+                }
+                final Element<T> element = this.table[this.index++];
+                if (Element.notEmpty(element)) {
+                    this.remaining--;
+                    action.accept(element.value);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            final int start = (this.index + BLOCK_SIZE - 1) >>> BLOCK_SHIFT;
+            final int middle = (start + this.endBlock) >>> 1;
+            if (middle <= start) {
+                return null;
+            }
+            long moved = 0;
+            for (int block = middle; block < this.endBlock; block++) {
+                moved += this.occupancy[block];
+            }
+            // The elements are not ordered, so the second half can be handed out
+            final Spliterator<T> suffix = new ElementSpliterator(this.table, this.occupancy, middle, this.endBlock, moved);
+            this.endBlock = middle;
+            this.remaining -= moved;
+            return suffix;
         }
 
-        private int stepSize(int iteration) {
-            return this.step.apply(iteration);
+        @Override
+        public long estimateSize() {
+            return this.remaining;
         }
 
-        private int tableSize(int minSize) {
-            return this.table.apply(minSize);
+        @Override
+        public int characteristics() {
+            return Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.NONNULL;
         }
     }
 
@@ -0,0 +1,140 @@
+package ch.isageek.ads.p7;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.function.LongBinaryOperator;
+import java.util.function.ObjLongConsumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * A hashmap with primitive long values using the probing strategies of {@link AdsHashTable}.
+ * The values are stored in a long[] parallel to the keys, e.g. counting keys with {@link #addTo} never boxes.
+ * Keys which are not in the map have the value {@link #NO_VALUE}.
+ * @param <K> the type of the keys
+ */
+public class AdsLongValueHashMap<K> extends AbstractAdsHashMap<K> {
+
+    public static final long NO_VALUE = 0L;
+
+    private long[] values;
+
+    public AdsLongValueHashMap() {
+        this(DEFAULT_SIZE, DEFAULT_MODE);
+    }
+
+    public AdsLongValueHashMap(int initialSize) {
+        this(initialSize, DEFAULT_MODE);
+    }
+
+    public AdsLongValueHashMap(AdsHashTable.ProbingMode probingMode) {
+        this(DEFAULT_SIZE, probingMode);
+    }
+
+    public AdsLongValueHashMap(int initialSize, AdsHashTable.ProbingMode probingMode) {
+        super(initialSize, probingMode);
+    }
+
+    @Override
+    void allocateValues(int capacity) {
+        this.values = new long[capacity];
+    }
+
+    @Override
+    Object values() {
+        return this.values;
+    }
+
+    @Override
+    void moveValue(Object oldValues, int from, int to) {
+        this.values[to] = ((long[]) oldValues)[from];
+    }
+
+    @Override
+    void clearValue(int index) {
+        this.values[index] = NO_VALUE;
+    }
+
+    /**
+     * Returns the value of the key
+     * @param key the key to find
+     * @return the value of the key or {@link #NO_VALUE} if the map does not contain the key
+     */
+    public long get(@NotNull K key) {
+        final int index = this.indexOf(key);
+        return index == -1 ? NO_VALUE : this.values[index];
+    }
+
+    /**
+     * Sets the value of the key
+     * @param key the key
+     * @param value the new value
+     * @return the previous value or {@link #NO_VALUE} if the map did not contain the key
+     */
+    public long put(@NotNull K key, long value) {
+        final int index = this.slotOf(key);
+        final long previous = this.values[index];
+        this.values[index] = value;
+        return previous;
+    }
+
+    /**
+     * Adds delta to the value of the key, a missing key starts at {@link #NO_VALUE}
+     * @param key the key
+     * @param delta the amount to add
+     * @return the new value of the key
+     */
+    public long addTo(@NotNull K key, long delta) {
+        // The table might grow while inserting, so the index has to be known before accessing the values
+        final int index = this.slotOf(key);
+        return this.values[index] += delta;
+    }
+
+    /**
+     * Returns the value of the key and computes it if the map does not contain the key yet
+     * @param key the key
+     * @param mappingFunction computes the value for a missing key
+     * @return the existing or computed value
+     */
+    public long computeIfAbsent(@NotNull K key, @NotNull ToLongFunction<? super K> mappingFunction) {
+        final int index = this.indexOf(key);
+        if (index != -1) {
+            return this.values[index];
+        }
+        final long value = mappingFunction.applyAsLong(key);
+        final int slot = this.slotOf(key);
+        this.values[slot] = value;
+        return value;
+    }
+
+    /**
+     * Stores the value if the map does not contain the key, otherwise combines the existing value with the given one
+     * @param key the key
+     * @param value the value to store or combine with the existing one
+     * @param remappingFunction combines the existing and the given value
+     * @return the new value of the key
+     */
+    public long merge(@NotNull K key, long value, @NotNull LongBinaryOperator remappingFunction) {
+        final int index = this.insert(key);
+        if (index < 0) {
+            return this.values[-index - 1] = value;
+        }
+        return this.values[index] = remappingFunction.applyAsLong(this.values[index], value);
+    }
+
+    /**
+     * Calls the action for every key and its value in the order they are stored
+     * @param action the action to call
+     */
+    public void forEach(@NotNull ObjLongConsumer<? super K> action) {
+        for (int i = 0; i < this.capacity(); i++) {
+            if (this.hasKeyAt(i)) {
+                action.accept(this.keyAt(i), this.values[i]);
+            }
+        }
+    }
+
+    private int slotOf(@NotNull K key) {
+        final int index = this.insert(key);
+        return index < 0 ? -index - 1 : index;
+    }
+}
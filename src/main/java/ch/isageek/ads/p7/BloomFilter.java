@@ -0,0 +1,101 @@
+package ch.isageek.ads.p7;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * A blocked bloom filter: every element sets all of its bits in one block of {@link #BLOCK_BITS} bits, the size of a
+ * cache line, so adding or testing an element touches only one cache line instead of one per bit.
+ * The filter may report elements it has never seen (false positives) but never misses an element which was added.
+ * @param <T> the type of the elements
+ */
+public class BloomFilter<T> {
+
+    private final static int BLOCK_BITS = 512;
+    private final static int BLOCK_WORDS = BLOCK_BITS / Long.SIZE;
+    private final static int MAX_HASHES = 16;
+
+    private final long[] words;
+    private final int blocks;
+    private final int hashes;
+
+    /**
+     * Creates a filter for the given number of elements
+     * @param expectedElements the number of elements which will be added
+     * @param falsePositiveRate the desired probability of a false positive once all elements are added, between 0 and 1
+     */
+    public BloomFilter(int expectedElements, double falsePositiveRate) {
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException(String.format("The false positive rate has to be between 0 and 1, was %f", falsePositiveRate));
+        }
+        final int elements = Math.max(1, expectedElements);
+        final double bits = -elements * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+        this.blocks = (int) Math.max(1, Math.ceil(bits / BLOCK_BITS));
+        this.words = new long[this.blocks * BLOCK_WORDS];
+        this.hashes = (int) Math.max(1, Math.min(MAX_HASHES, Math.round(bits / elements * Math.log(2))));
+    }
+
+    public void add(@NotNull T element) {
+        final long hash = hash(element);
+        final int offset = this.blockOffset(hash);
+        final int h1 = (int) hash;
+        final int h2 = Integer.rotateLeft((int) (hash >>> 32), 16) | 1;
+        for (int i = 0; i < this.hashes; i++) {
+            final int bit = (h1 + i * h2) & (BLOCK_BITS - 1);
+            this.words[offset + (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    /**
+     * Tests whether the element might have been added
+     * @param element the element to test
+     * @return false if the element has never been added, true if it probably was
+     */
+    public boolean mightContain(@NotNull T element) {
+        final long hash = hash(element);
+        final int offset = this.blockOffset(hash);
+        final int h1 = (int) hash;
+        final int h2 = Integer.rotateLeft((int) (hash >>> 32), 16) | 1;
+        for (int i = 0; i < this.hashes; i++) {
+            final int bit = (h1 + i * h2) & (BLOCK_BITS - 1);
+            if ((this.words[offset + (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void clear() {
+        Arrays.fill(this.words, 0);
+    }
+
+    /**
+     * @return the number of bits of the filter
+     */
+    public long bitSize() {
+        return (long) this.words.length * Long.SIZE;
+    }
+
+    public int getHashes() {
+        return this.hashes;
+    }
+
+    private int blockOffset(long hash) {
+        // Maps the upper half of the hash to [0, blocks) without a division
+        return (int) (((hash >>> 32) * this.blocks) >>> 32) * BLOCK_WORDS;
+    }
+
+    /**
+     * Mixes the hashcode to 64 bits (the finalizer of murmur3)
+     */
+    private static long hash(@NotNull Object element) {
+        long h = element.hashCode();
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,177 @@
+package ch.isageek.ads.p7;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.stream.Stream;
+
+/**
+ * A {@link HashTable} which keeps a {@link BloomFilter} in front of another table.
+ * {@link #contains} only probes the table if the filter reports the element, which makes lookups of missing elements cheap.
+ * A bloom filter cannot forget an element, so removed elements stay in the filter until it is rebuilt from the table,
+ * which happens when the number of removals or elements exceeds what the filter was built for.
+ * @param <T> the type of the elements
+ */
+public class BloomFilteredHashTable<T> implements HashTable<T> {
+
+    private final static int DEFAULT_EXPECTED_ELEMENTS = 1024;
+    private final static double DEFAULT_FALSE_POSITIVE_RATE = 0.01;
+    private final static int GROW_FACTOR = 2;
+
+    private final HashTable<T> table;
+    private final double falsePositiveRate;
+    private BloomFilter<T> filter;
+    private int expectedElements;
+    // Removed elements which are still set in the filter
+    private int removedSinceRebuild;
+
+    private long lookups;
+    private long filteredLookups;
+    private long falsePositives;
+    private long rebuilds;
+
+    public BloomFilteredHashTable(HashTable<T> table) {
+        this(table, DEFAULT_EXPECTED_ELEMENTS, DEFAULT_FALSE_POSITIVE_RATE);
+    }
+
+    /**
+     * @param table the table to filter, elements already in it are added to the filter
+     * @param expectedElements the number of elements the filter is built for, it is rebuilt bigger when the table grows past it
+     * @param falsePositiveRate the desired false positive rate of the filter
+     */
+    public BloomFilteredHashTable(HashTable<T> table, int expectedElements, double falsePositiveRate) {
+        this.table = table;
+        this.falsePositiveRate = falsePositiveRate;
+        this.expectedElements = Math.max(expectedElements, table.size());
+        this.rebuild();
+    }
+
+    @Override
+    public int size() {
+        return this.table.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.table.isEmpty();
+    }
+
+    @Override
+    public void add(@NotNull T element) {
+        this.table.add(element);
+        if (this.table.size() > this.expectedElements) {
+            this.expectedElements *= GROW_FACTOR;
+            this.rebuild();
+        } else {
+            this.filter.add(element);
+        }
+    }
+
+    @Override
+    public boolean contains(@NotNull T element) {
+        this.lookups++;
+        if (!this.filter.mightContain(element)) {
+            this.filteredLookups++;
+            return false;
+        }
+        final boolean contained = this.table.contains(element);
+        if (!contained) {
+            this.falsePositives++;
+        }
+        return contained;
+    }
+
+    @Override
+    public boolean remove(@NotNull T element) {
+        if (!this.table.remove(element)) {
+            return false;
+        }
+        this.removedSinceRebuild++;
+        // Once half of the elements in the filter are removed they noticeably add to the false positives
+        if (this.removedSinceRebuild > this.expectedElements / 2) {
+            this.rebuild();
+        }
+        return true;
+    }
+
+    /**
+     * Creates a new filter containing only the elements currently in the table
+     */
+    public void rebuild() {
+        this.filter = new BloomFilter<>(this.expectedElements, this.falsePositiveRate);
+        this.table.elements().forEach(this.filter::add);
+        this.removedSinceRebuild = 0;
+        this.rebuilds++;
+    }
+
+    @Override
+    public void setLoadFactorForResize(float loadfactor) {
+        this.table.setLoadFactorForResize(loadfactor);
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return this.table.iterator();
+    }
+
+    @Override
+    public Stream<T> stream() {
+        return this.table.stream();
+    }
+
+    @Override
+    public Spliterator<T> spliterator() {
+        return this.table.spliterator();
+    }
+
+    @Override
+    public void addAll(@NotNull Collection<T> elements) {
+        elements.forEach(this::add);
+    }
+
+    public long getLookups() {
+        return this.lookups;
+    }
+
+    /**
+     * @return the number of lookups answered by the filter alone
+     */
+    public long getFilteredLookups() {
+        return this.filteredLookups;
+    }
+
+    /**
+     * @return the number of lookups the filter passed to the table which did not contain the element
+     */
+    public long getFalsePositives() {
+        return this.falsePositives;
+    }
+
+    /**
+     * @return the measured ratio of lookups of missing elements which were not answered by the filter
+     */
+    public double getFalsePositiveRate() {
+        final long misses = this.filteredLookups + this.falsePositives;
+        return misses == 0 ? 0 : this.falsePositives / (double) misses;
+    }
+
+    /**
+     * @return the ratio of all lookups answered by the filter alone
+     */
+    public double getFilterHitRatio() {
+        return this.lookups == 0 ? 0 : this.filteredLookups / (double) this.lookups;
+    }
+
+    public long getRebuilds() {
+        return this.rebuilds;
+    }
+
+    public void resetStatistics() {
+        this.lookups = 0;
+        this.filteredLookups = 0;
+        this.falsePositives = 0;
+        this.rebuilds = 0;
+    }
+}
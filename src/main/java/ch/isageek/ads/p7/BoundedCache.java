@@ -0,0 +1,275 @@
+package ch.isageek.ads.p7;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.function.Function;
+
+/**
+ * A cache holding at most a fixed number of entries, stored in an {@link AdsHashMap}.
+ * New entries are added to a small window, when they leave it they have to compete with the entries in the main area:
+ * a {@link FrequencySketch} estimates how often both keys were requested and only the more frequent one is kept (W-TinyLFU).
+ * The main area is a segmented LRU, entries start in the probation segment and are promoted to the protected
+ * segment when they are requested again, which keeps scans of one time requests from pushing out popular entries.
+ * Like {@link AdsHashMap} the cache is not thread safe.
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+public class BoundedCache<K, V> {
+
+    private final static float WINDOW_RATIO = 0.01f;
+    private final static float PROTECTED_RATIO = 0.8f;
+
+    private final int maximumSize;
+    private final int windowSize;
+    private final int protectedSize;
+    private final AdsHashMap<K, Node<K, V>> entries;
+    private final FrequencySketch sketch;
+    private final Queue<K, V> window = new Queue<>();
+    private final Queue<K, V> probation = new Queue<>();
+    private final Queue<K, V> protectedQueue = new Queue<>();
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public BoundedCache(int maximumSize) {
+        this(maximumSize, AdsHashTable.ProbingMode.LINEAR_SPREAD);
+    }
+
+    public BoundedCache(int maximumSize, AdsHashTable.ProbingMode probingMode) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException(String.format("The maximum size has to be at least 1, was %d", maximumSize));
+        }
+        this.maximumSize = maximumSize;
+        this.windowSize = Math.max(1, (int) (maximumSize * WINDOW_RATIO));
+        this.protectedSize = (int) ((maximumSize - this.windowSize) * PROTECTED_RATIO);
+        this.entries = new AdsHashMap<>(maximumSize, probingMode);
+        this.sketch = new FrequencySketch(maximumSize);
+    }
+
+    /**
+     * Returns the cached value of the key
+     * @param key the key
+     * @return the value or <b>null</b> if the key is not cached
+     */
+    @Nullable
+    public V get(@NotNull K key) {
+        this.sketch.increment(key);
+        final Node<K, V> node = this.entries.get(key);
+        if (node == null) {
+            this.misses++;
+            return null;
+        }
+        this.hits++;
+        this.onAccess(node);
+        return node.value;
+    }
+
+    /**
+     * Returns the cached value of the key, or computes and caches it if the key is not cached
+     * @param key the key
+     * @param mappingFunction computes the value of the key, <b>null</b> is returned but not cached
+     * @return the value of the key
+     */
+    @Nullable
+    public V computeIfAbsent(@NotNull K key, @NotNull Function<? super K, ? extends V> mappingFunction) {
+        final V cached = this.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        final V value = mappingFunction.apply(key);
+        if (value != null) {
+            this.add(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Caches the value of the key, this might evict another entry or even the new one
+     * @param key the key
+     * @param value the value
+     */
+    public void put(@NotNull K key, @NotNull V value) {
+        this.sketch.increment(key);
+        final Node<K, V> node = this.entries.get(key);
+        if (node != null) {
+            node.value = value;
+            this.onAccess(node);
+            return;
+        }
+        this.add(key, value);
+    }
+
+    private void add(@NotNull K key, @NotNull V value) {
+        final Node<K, V> node = new Node<>(key, value);
+        this.entries.put(key, node);
+        this.window.append(node, Segment.WINDOW);
+        if (this.window.size > this.windowSize) {
+            this.admit(this.window.removeFirst());
+        }
+    }
+
+    /**
+     * Moves the candidate from the window to the main area if there is space or it is more frequent than the victim
+     */
+    private void admit(Node<K, V> candidate) {
+        if (this.probation.size + this.protectedQueue.size < this.maximumSize - this.windowSize) {
+            this.probation.append(candidate, Segment.PROBATION);
+            return;
+        }
+        final Node<K, V> victim = this.probation.first() != null ? this.probation.first() : this.protectedQueue.first();
+        if (victim != null && this.sketch.frequency(candidate.key) > this.sketch.frequency(victim.key)) {
+            this.queueOf(victim).remove(victim);
+            this.evict(victim);
+            this.probation.append(candidate, Segment.PROBATION);
+        } else {
+            this.evict(candidate);
+        }
+    }
+
+    private void evict(Node<K, V> node) {
+        this.entries.remove(node.key);
+        this.evictions++;
+    }
+
+    private void onAccess(Node<K, V> node) {
+        switch (node.segment) {
+            case WINDOW:
+                this.window.remove(node);
+                this.window.append(node, Segment.WINDOW);
+                break;
+            case PROBATION:
+                this.probation.remove(node);
+                this.protectedQueue.append(node, Segment.PROTECTED);
+                if (this.protectedQueue.size > this.protectedSize) {
+                    this.probation.append(this.protectedQueue.removeFirst(), Segment.PROBATION);
+                }
+                break;
+            default:
+                this.protectedQueue.remove(node);
+                this.protectedQueue.append(node, Segment.PROTECTED);
+        }
+    }
+
+    /**
+     * Removes the key from the cache
+     * @param key the key
+     * @return true if the key was cached
+     */
+    public boolean invalidate(@NotNull K key) {
+        final Node<K, V> node = this.entries.get(key);
+        if (node == null) {
+            return false;
+        }
+        this.queueOf(node).remove(node);
+        this.entries.remove(key);
+        return true;
+    }
+
+    public boolean containsKey(@NotNull K key) {
+        return this.entries.containsKey(key);
+    }
+
+    public int size() {
+        return this.entries.size();
+    }
+
+    public int getMaximumSize() {
+        return this.maximumSize;
+    }
+
+    public long getHits() {
+        return this.hits;
+    }
+
+    public long getMisses() {
+        return this.misses;
+    }
+
+    public long getEvictions() {
+        return this.evictions;
+    }
+
+    public double getHitRate() {
+        final long requests = this.hits + this.misses;
+        return requests == 0 ? 0 : this.hits / (double) requests;
+    }
+
+    private Queue<K, V> queueOf(Node<K, V> node) {
+        switch (node.segment) {
+            case WINDOW:
+                return this.window;
+            case PROBATION:
+                return this.probation;
+            default:
+                return this.protectedQueue;
+        }
+    }
+
+    private enum Segment {
+        WINDOW, PROBATION, PROTECTED
+    }
+
+    private static class Node<K, V> {
+        final K key;
+        V value;
+        Segment segment;
+        Node<K, V> previous;
+        Node<K, V> next;
+
+        Node(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    /**
+     * A doubly linked list of nodes, the least recently used node is first
+     */
+    private static class Queue<K, V> {
+        private Node<K, V> head;
+        private Node<K, V> tail;
+        int size;
+
+        @Nullable
+        Node<K, V> first() {
+            return this.head;
+        }
+
+        void append(Node<K, V> node, Segment segment) {
+            node.segment = segment;
+            node.previous = this.tail;
+            node.next = null;
+            if (this.tail == null) {
+                this.head = node;
+            } else {
+                this.tail.next = node;
+            }
+            this.tail = node;
+            this.size++;
+        }
+
+        Node<K, V> removeFirst() {
+            final Node<K, V> first = this.head;
+            this.remove(first);
+            return first;
+        }
+
+        void remove(Node<K, V> node) {
+            if (node.previous == null) {
+                this.head = node.next;
+            } else {
+                node.previous.next = node.next;
+            }
+            if (node.next == null) {
+                this.tail = node.previous;
+            } else {
+                node.next.previous = node.previous;
+            }
+            node.previous = null;
+            node.next = null;
+            this.size--;
+        }
+    }
+}
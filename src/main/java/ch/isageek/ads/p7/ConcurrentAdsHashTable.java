@@ -0,0 +1,327 @@
+package ch.isageek.ads.p7;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * A thread safe hashtable using the probing strategies of {@link AdsHashTable}.
+ * The buckets are stored in an {@link AtomicReferenceArray}:
+ * <ul>
+ *     <li>{@link #contains} never blocks, it only reads buckets</li>
+ *     <li>{@link #add} claims an empty bucket with a compare-and-set, so an element is only ever added once</li>
+ *     <li>{@link #remove} replaces the element with a marker using a compare-and-set</li>
+ * </ul>
+ * When the table grows a new table is linked to the old one and every thread which wants to modify the table helps
+ * moving the buckets in chunks of {@link #TRANSFER_CHUNK}, lookups meanwhile search both tables.
+ * Removed buckets are never reused for new elements, they are cleaned up by the next resize.
+ * @param <T> the type of the elements
+ */
+public class ConcurrentAdsHashTable<T> implements HashTable<T> {
+
+    private final static int DEFAULT_SIZE = 10;
+    private final static int GROW_FACTOR = 2;
+    private final static float DEFAULT_LOADFACTOR = 0.8f;
+    private final static float MIN_LOADFACTOR = 0.01f;
+    private final static float MAX_LOADFACTOR = 1.0f;
+    private final static AdsHashTable.ProbingMode DEFAULT_MODE = AdsHashTable.ProbingMode.QUADRATIC;
+    private final static int TRANSFER_CHUNK = 64;
+
+    // Bucket of a removed element
+    private final static Object REMOVED = new Object();
+    // Bucket which has been moved to the next table
+    private final static Object MOVED = new Object();
+
+    private final AdsHashTable.ProbingMode probingMode;
+    private final AtomicReference<Table> table;
+    private final LongAdder count = new LongAdder();
+    private volatile float loadFactorForResize;
+
+    public ConcurrentAdsHashTable() {
+        this(DEFAULT_SIZE, DEFAULT_MODE);
+    }
+
+    public ConcurrentAdsHashTable(int initialSize) {
+        this(initialSize, DEFAULT_MODE);
+    }
+
+    public ConcurrentAdsHashTable(AdsHashTable.ProbingMode probingMode) {
+        this(DEFAULT_SIZE, probingMode);
+    }
+
+    public ConcurrentAdsHashTable(int initialSize, AdsHashTable.ProbingMode probingMode) {
+        this.probingMode = probingMode;
+        this.table = new AtomicReference<>(new Table(probingMode.tableSize(initialSize == 0 ? 1 : initialSize)));
+        this.loadFactorForResize = DEFAULT_LOADFACTOR;
+    }
+
+    @Override
+    public int size() {
+        return this.count.intValue();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.size() == 0;
+    }
+
+    @Override
+    public void add(@NotNull T element) {
+        while (true) {
+            final Table current = this.table.get();
+            if (current.next.get() != null) {
+                this.helpTransfer(current);
+                continue;
+            }
+            switch (this.insert(current, element)) {
+                case ADDED:
+                    this.count.increment();
+                    if (current.used.get() >= this.loadFactorForResize * current.length()) {
+                        this.resize(current);
+                    }
+                    return;
+                case EXISTS:
+                    return;
+                default:
+                    // The table is either full or being resized
+                    this.resize(current);
+            }
+        }
+    }
+
+    private Insert insert(Table table, @NotNull T element) {
+        final int originalIndex = this.generateIndex(table, element);
+        int idx = originalIndex;
+        int count = 0;
+        while (count < table.length()) {
+            final Object current = table.buckets.get(idx);
+            if (current == null) {
+                if (table.buckets.compareAndSet(idx, null, element)) {
+                    table.used.incrementAndGet();
+                    return Insert.ADDED;
+                }
+                // Another thread claimed the bucket, check it again
+                continue;
+            }
+            if (current == MOVED || current instanceof Frozen) {
+                return Insert.RETRY;
+            }
+            if (element.equals(current)) {
+                return Insert.EXISTS;
+            }
+            idx = this.getNextPossibleIndex(table, originalIndex, count);
+            count++;
+        }
+        return Insert.RETRY;
+    }
+
+    @Override
+    public boolean contains(@NotNull T element) {
+        // The next table is only read after the current one is searched, elements are only marked as moved after they were added to the next table
+        for (Table current = this.table.get(); current != null; current = current.next.get()) {
+            if (this.find(current, element) != -1) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int find(Table table, @NotNull T element) {
+        final int originalIndex = this.generateIndex(table, element);
+        int idx = originalIndex;
+        for (int count = 0; count < table.length(); count++) {
+            final Object current = table.buckets.get(idx);
+            // If the bucket is null it has never been used so no probing ever got to this position
+            if (current == null) {
+                return -1;
+            }
+            if (element.equals(unpack(current))) {
+                return idx;
+            }
+            idx = this.getNextPossibleIndex(table, originalIndex, count);
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean remove(@NotNull T element) {
+        retry:
+        while (true) {
+            final Table current = this.table.get();
+            if (current.next.get() != null) {
+                this.helpTransfer(current);
+                continue;
+            }
+            final int originalIndex = this.generateIndex(current, element);
+            int idx = originalIndex;
+            int count = 0;
+            while (count < current.length()) {
+                final Object value = current.buckets.get(idx);
+                if (value == null) {
+                    return false;
+                }
+                if (value == MOVED || value instanceof Frozen) {
+                    continue retry;
+                }
+                if (element.equals(value)) {
+                    if (current.buckets.compareAndSet(idx, value, REMOVED)) {
+                        this.count.decrement();
+                        return true;
+                    }
+                    // The bucket changed in the meantime, check it again
+                    continue;
+                }
+                idx = this.getNextPossibleIndex(current, originalIndex, count);
+                count++;
+            }
+            return false;
+        }
+    }
+
+    private void resize(Table current) {
+        if (current.next.get() == null) {
+            // Only removed elements are the reason to resize, so the table is just cleaned up
+            final boolean onlyRemoved = this.size() < this.loadFactorForResize * current.length() / GROW_FACTOR;
+            final int size = onlyRemoved ? current.length() : current.length() * GROW_FACTOR;
+            current.next.compareAndSet(null, new Table(this.probingMode.tableSize(size)));
+        }
+        this.helpTransfer(current);
+    }
+
+    /**
+     * Moves chunks of buckets to the next table until no chunk is left, then waits for the other threads to finish their chunks
+     * @param current the table which is resized
+     */
+    private void helpTransfer(Table current) {
+        final Table next = current.next.get();
+        int start;
+        while ((start = current.transferIndex.getAndAdd(TRANSFER_CHUNK)) < current.length()) {
+            final int end = Math.min(start + TRANSFER_CHUNK, current.length());
+            for (int idx = start; idx < end; idx++) {
+                this.transfer(current, next, idx);
+            }
+            current.transferred.addAndGet(end - start);
+        }
+        while (current.transferred.get() < current.length()) {
+            Thread.yield();
+        }
+        this.table.compareAndSet(current, next);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void transfer(Table current, Table next, int idx) {
+        while (true) {
+            final Object value = current.buckets.get(idx);
+            if (value == null || value == REMOVED) {
+                if (current.buckets.compareAndSet(idx, value, MOVED)) {
+                    return;
+                }
+            } else {
+                // Readers still find the frozen element while it is added to the next table, but it can no longer be removed
+                if (current.buckets.compareAndSet(idx, value, new Frozen(value))) {
+                    // The next table is not resized before the transfer is done and is large enough for all elements
+                    if (this.insert(next, (T) value) == Insert.RETRY) {
+                        throw new IllegalStateException(String.format("Element %s could not be moved to the next table", value));
+                    }
+                    current.buckets.set(idx, MOVED);
+                    return;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void setLoadFactorForResize(float loadFactor) {
+        this.loadFactorForResize = Math.max(MIN_LOADFACTOR, Math.min(MAX_LOADFACTOR, loadFactor));
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return this.stream().iterator();
+    }
+
+    /**
+     * {@inheritDoc}
+     * The {@link Stream} is weakly consistent, it reflects the state of the buckets at the time they are read.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Stream<T> stream() {
+        final Table current = this.table.get();
+        return IntStream.range(0, current.length()).mapToObj(idx -> (T) unpack(current.buckets.get(idx)));
+    }
+
+    /**
+     * {@inheritDoc}
+     * The {@link Spliterator} is weakly consistent like {@link #stream()}, so it does not know the exact number of elements.
+     */
+    @Override
+    public Spliterator<T> spliterator() {
+        final Iterator<T> elements = this.stream().filter(Objects::nonNull).iterator();
+        return Spliterators.spliteratorUnknownSize(elements, Spliterator.NONNULL | Spliterator.CONCURRENT);
+    }
+
+    @Override
+    public void addAll(@NotNull Collection<T> elements) {
+        elements.forEach(this::add);
+    }
+
+    private int generateIndex(Table table, @NotNull T element) {
+        return this.probingMode.index(element.hashCode(), table.length());
+    }
+
+    private int getNextPossibleIndex(Table table, final int original, final int iteration) {
+        return this.probingMode.nextIndex(original, iteration, table.length());
+    }
+
+    private static Object unpack(Object bucket) {
+        if (bucket instanceof Frozen) {
+            return ((Frozen) bucket).value;
+        }
+        return bucket == REMOVED || bucket == MOVED ? null : bucket;
+    }
+
+    private enum Insert {
+        ADDED, EXISTS, RETRY
+    }
+
+    private static class Table {
+        final AtomicReferenceArray<Object> buckets;
+        // Number of buckets which are not null, e.g. elements and removed elements
+        final AtomicInteger used = new AtomicInteger();
+        final AtomicReference<Table> next = new AtomicReference<>();
+        // Start of the next chunk of buckets to move to the next table
+        final AtomicInteger transferIndex = new AtomicInteger();
+        // Number of buckets already moved to the next table
+        final AtomicInteger transferred = new AtomicInteger();
+
+        Table(int size) {
+            this.buckets = new AtomicReferenceArray<>(size);
+        }
+
+        int length() {
+            return this.buckets.length();
+        }
+    }
+
+    /**
+     * Bucket of an element which is currently moved to the next table
+     */
+    private static class Frozen {
+        final Object value;
+
+        Frozen(Object value) {
+            this.value = value;
+        }
+    }
+}
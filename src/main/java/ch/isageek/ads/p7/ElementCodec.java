@@ -0,0 +1,84 @@
+package ch.isageek.ads.p7;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Converts elements to bytes and back, see {@link HashTableSnapshot}
+ * @param <T> the type of the elements
+ */
+public interface ElementCodec<T> {
+
+    ElementCodec<Integer> INTEGER = new ElementCodec<Integer>() {
+        @Override
+        public int size(@NotNull Integer element) {
+            return Integer.BYTES;
+        }
+
+        @Override
+        public void write(@NotNull Integer element, @NotNull ByteBuffer buffer) {
+            buffer.putInt(element);
+        }
+
+        @Override
+        public Integer read(@NotNull ByteBuffer buffer, int size) {
+            return buffer.getInt();
+        }
+    };
+
+    ElementCodec<Long> LONG = new ElementCodec<Long>() {
+        @Override
+        public int size(@NotNull Long element) {
+            return Long.BYTES;
+        }
+
+        @Override
+        public void write(@NotNull Long element, @NotNull ByteBuffer buffer) {
+            buffer.putLong(element);
+        }
+
+        @Override
+        public Long read(@NotNull ByteBuffer buffer, int size) {
+            return buffer.getLong();
+        }
+    };
+
+    /**
+     * Encodes strings as UTF-8
+     */
+    ElementCodec<String> STRING = new ElementCodec<String>() {
+        @Override
+        public int size(@NotNull String element) {
+            return element.getBytes(StandardCharsets.UTF_8).length;
+        }
+
+        @Override
+        public void write(@NotNull String element, @NotNull ByteBuffer buffer) {
+            buffer.put(element.getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public String read(@NotNull ByteBuffer buffer, int size) {
+            final byte[] bytes = new byte[size];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    };
+
+    /**
+     * @param element the element
+     * @return the number of bytes {@link #write} puts into the buffer
+     */
+    int size(@NotNull T element);
+
+    void write(@NotNull T element, @NotNull ByteBuffer buffer);
+
+    /**
+     * @param buffer the buffer positioned at the element
+     * @param size the number of bytes of the element
+     * @return the element
+     */
+    T read(@NotNull ByteBuffer buffer, int size);
+}
@@ -0,0 +1,103 @@
+package ch.isageek.ads.p7;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A count-min sketch with 4 bit counters estimating how often an element was seen.
+ * Every element is counted in {@link #DEPTH} counters, its frequency is the smallest of them.
+ * Once the number of increments reaches the sample size all counters are halved, so old popularity fades.
+ */
+class FrequencySketch {
+
+    private final static int DEPTH = 4;
+    private final static int MAX_COUNT = 15;
+    private final static int SAMPLE_FACTOR = 10;
+    // Clears the highest bit of every counter after the table was shifted right by one
+    private final static long RESET_MASK = 0x7777777777777777L;
+    private final static int[] SEEDS = {0x97cb3127, 0xb7ac8213, 0x8a6b9f57, 0xc2b2ae35};
+
+    private final long[] table;
+    private final int sampleSize;
+    private int additions;
+
+    /**
+     * @param maximumSize the number of elements in the cache
+     */
+    FrequencySketch(int maximumSize) {
+        // 16 counters per long, one long per element is enough for DEPTH counters
+        final int length = Math.max(16, Integer.highestOneBit(Math.max(1, maximumSize) - 1) << 1);
+        this.table = new long[length];
+        this.sampleSize = SAMPLE_FACTOR * Math.max(1, maximumSize);
+    }
+
+    /**
+     * @param element the element
+     * @return the estimated number of times the element was counted, at most {@link #MAX_COUNT}
+     */
+    int frequency(@NotNull Object element) {
+        final int hash = element.hashCode();
+        int frequency = MAX_COUNT;
+        for (int i = 0; i < DEPTH; i++) {
+            frequency = Math.min(frequency, this.counter(hash, i));
+        }
+        return frequency;
+    }
+
+    void increment(@NotNull Object element) {
+        final int hash = element.hashCode();
+        final int frequency = this.frequency(element);
+        if (frequency == MAX_COUNT) {
+            return;
+        }
+        // Only the smallest counters are incremented, the others already overestimate the element
+        for (int i = 0; i < DEPTH; i++) {
+            if (this.counter(hash, i) == frequency && !this.isCountedBefore(hash, i)) {
+                final int mixed = this.mix(hash, i);
+                this.table[this.wordIndex(mixed)] += 1L << shift(mixed);
+            }
+        }
+        if (++this.additions >= this.sampleSize) {
+            this.reset();
+        }
+    }
+
+    private void reset() {
+        for (int i = 0; i < this.table.length; i++) {
+            this.table[i] = (this.table[i] >>> 1) & RESET_MASK;
+        }
+        this.additions /= 2;
+    }
+
+    /**
+     * Several depths can map to the same counter, it must only be incremented once or it carries into its neighbour
+     * @return true if a smaller depth maps to the same counter as the given one
+     */
+    private boolean isCountedBefore(int hash, int depth) {
+        final int mixed = this.mix(hash, depth);
+        for (int i = 0; i < depth; i++) {
+            final int other = this.mix(hash, i);
+            if (this.wordIndex(other) == this.wordIndex(mixed) && shift(other) == shift(mixed)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int counter(int hash, int depth) {
+        final int mixed = this.mix(hash, depth);
+        return (int) ((this.table[this.wordIndex(mixed)] >>> shift(mixed)) & MAX_COUNT);
+    }
+
+    private int mix(int hash, int depth) {
+        return AdsHashTable.ProbingMode.spread(hash * SEEDS[depth]);
+    }
+
+    private int wordIndex(int mixed) {
+        return mixed & (this.table.length - 1);
+    }
+
+    private static int shift(int mixed) {
+        // The upper bits select one of the 16 counters in the word
+        return (mixed >>> 28) << 2;
+    }
+}
@@ -4,7 +4,11 @@ import org.jetbrains.annotations.NotNull;
 
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public interface HashTable<T> {
 
@@ -67,4 +71,22 @@ public interface HashTable<T> {
      * @param elements the {@link Collection} of elements to add
      */
     void addAll(@NotNull Collection<T> elements);
+
+    /**
+     * Returns a {@link Spliterator} over all elements in the table, unlike {@link #iterator()} without empty buckets
+     * The {@link Spliterator} knows the number of elements and might split the buckets for parallel processing.
+     * @return a {@link Spliterator} over all elements
+     */
+    default Spliterator<T> spliterator() {
+        final Iterator<T> elements = this.stream().filter(Objects::nonNull).iterator();
+        return Spliterators.spliterator(elements, this.size(), Spliterator.SIZED | Spliterator.NONNULL);
+    }
+
+    /**
+     * Returns a {@link Stream} of all elements in the table, unlike {@link #stream()} without empty buckets
+     * @return a {@link Stream} of all elements
+     */
+    default Stream<T> elements() {
+        return StreamSupport.stream(this.spliterator(), false);
+    }
 }
@@ -0,0 +1,171 @@
+package ch.isageek.ads.p7;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes the buckets of an {@link AdsHashTable} to a file and restores them.
+ * The file starts with a header (probing mode, loadfactor, number of buckets and elements) followed by one record per
+ * bucket: runs of free buckets are stored as their length, removed elements as a tag and elements as their length and
+ * the bytes of the {@link ElementCodec}. As every element is restored to its bucket no element is hashed again,
+ * unless the number of buckets is not one the probing mode would create.
+ * The file is read through a memory mapping in windows of at most {@link #WINDOW_BYTES} bytes.
+ */
+public class HashTableSnapshot {
+
+    private final static int MAGIC = 0x41445354;
+    private final static int VERSION = 1;
+    private final static int HEADER_BYTES = 28;
+    private final static int WRITE_BUFFER_BYTES = 1 << 16;
+    private final static int WINDOW_BYTES = 1 << 30;
+    private final static byte FREE_RUN = 0;
+    private final static byte REMOVED = 1;
+    private final static byte ELEMENT = 2;
+    // Tag and length of an element or a run of free buckets
+    private final static int RECORD_HEADER_BYTES = 1 + Integer.BYTES;
+
+    private HashTableSnapshot() {
+    }
+
+    /**
+     * Writes the table to the file, a pending incremental resize is completed first
+     * @param hashTable the table to write
+     * @param codec the codec of the elements
+     * @param file the file to write, an existing file is overwritten
+     * @param <T> the type of the elements
+     * @throws IOException if the file cannot be written
+     */
+    public static <T> void write(@NotNull AdsHashTable<T> hashTable, @NotNull ElementCodec<T> codec, @NotNull File file) throws IOException {
+        final int capacity = hashTable.prepareSnapshot();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES);
+            buffer.putInt(MAGIC);
+            buffer.putInt(VERSION);
+            buffer.putInt(hashTable.getProbingMode().ordinal());
+            buffer.putFloat(hashTable.getLoadFactorForResize());
+            buffer.putInt(capacity);
+            buffer.putInt(hashTable.size());
+            buffer.putInt(hashTable.isIncrementalResize() ? 1 : 0);
+            int index = 0;
+            while (index < capacity) {
+                if (hashTable.isFreeAt(index)) {
+                    final int start = index;
+                    while (index < capacity && hashTable.isFreeAt(index)) {
+                        index++;
+                    }
+                    flushIfFull(channel, buffer, RECORD_HEADER_BYTES);
+                    buffer.put(FREE_RUN).putInt(index - start);
+                    continue;
+                }
+                final T value = hashTable.valueAt(index++);
+                if (value == null) {
+                    flushIfFull(channel, buffer, 1);
+                    buffer.put(REMOVED);
+                    continue;
+                }
+                final int size = codec.size(value);
+                flushIfFull(channel, buffer, RECORD_HEADER_BYTES + size);
+                if (buffer.remaining() < RECORD_HEADER_BYTES + size) {
+                    // The element does not fit into the buffer at all
+                    buffer = ByteBuffer.allocateDirect(RECORD_HEADER_BYTES + size);
+                }
+                buffer.put(ELEMENT).putInt(size);
+                codec.write(value, buffer);
+            }
+            flush(channel, buffer);
+        }
+    }
+
+    private static void flushIfFull(FileChannel channel, ByteBuffer buffer, int required) throws IOException {
+        if (buffer.remaining() < required) {
+            flush(channel, buffer);
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Restores a table written with {@link #write}
+     * @param codec the codec of the elements
+     * @param file the file to read
+     * @param <T> the type of the elements
+     * @return the restored table
+     * @throws IOException if the file cannot be read or is not a snapshot
+     */
+    public static <T> AdsHashTable<T> read(@NotNull ElementCodec<T> codec, @NotNull File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            final long fileSize = channel.size();
+            if (fileSize < HEADER_BYTES) {
+                throw new IOException(String.format("%s is not a hashtable snapshot", file));
+            }
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(fileSize, WINDOW_BYTES));
+            long windowStart = 0;
+            if (window.getInt() != MAGIC || window.getInt() != VERSION) {
+                throw new IOException(String.format("%s is not a hashtable snapshot", file));
+            }
+            final AdsHashTable.ProbingMode probingMode = AdsHashTable.ProbingMode.values()[window.getInt()];
+            final float loadFactor = window.getFloat();
+            final int capacity = window.getInt();
+            final int size = window.getInt();
+            final boolean incrementalResize = window.getInt() == 1;
+
+            AdsHashTable<T> hashTable = new AdsHashTable<>(1, probingMode);
+            hashTable.setLoadFactorForResize(loadFactor);
+            final boolean sameBuckets = hashTable.restoreCapacity(capacity);
+            if (!sameBuckets) {
+                // Without the exact number of buckets the elements are added again, to a table large enough for all of them
+                final int elements = Math.max(0, Math.min(size, capacity));
+                hashTable = new AdsHashTable<>((int) Math.ceil(elements / hashTable.getLoadFactorForResize()) + 1, probingMode);
+                hashTable.setLoadFactorForResize(loadFactor);
+            }
+            int index = 0;
+            while (index < capacity) {
+                if (window.remaining() < RECORD_HEADER_BYTES && windowStart + window.position() < fileSize) {
+                    windowStart += window.position();
+                    window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, Math.min(fileSize - windowStart, WINDOW_BYTES));
+                }
+                final byte tag = window.get();
+                if (tag == FREE_RUN) {
+                    index += window.getInt();
+                } else if (tag == REMOVED) {
+                    if (sameBuckets) {
+                        hashTable.restoreBucket(index, null);
+                    }
+                    index++;
+                } else if (tag == ELEMENT) {
+                    final int elementSize = window.getInt();
+                    if (window.remaining() < elementSize) {
+                        windowStart += window.position();
+                        window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, Math.min(fileSize - windowStart, Math.max(elementSize, WINDOW_BYTES)));
+                    }
+                    final T value = codec.read(window, elementSize);
+                    if (sameBuckets) {
+                        hashTable.restoreBucket(index, value);
+                    } else {
+                        hashTable.add(value);
+                    }
+                    index++;
+                } else {
+                    throw new IOException(String.format("%s contains an unknown record %d", file, tag));
+                }
+            }
+            if (hashTable.size() != size) {
+                throw new IOException(String.format("%s contains %d instead of %d elements", file, hashTable.size(), size));
+            }
+            hashTable.setIncrementalResize(incrementalResize);
+            return hashTable;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package ch.isageek.ads.p7;
+
+import java.util.Arrays;
+
+/**
+ * A snapshot of the statistics of an {@link AdsHashTable}, see {@link AdsHashTable#getStatistics()}.
+ * The probe lengths are collected in histograms with buckets of powers of two:
+ * bucket 0 counts operations which found their bucket at the first index, bucket {@code k} counts operations which
+ * needed between {@code 2^(k-1)} and {@code 2^k - 1} additional probes.
+ */
+public class HashTableStatistics {
+
+    static final int HISTOGRAM_BUCKETS = Integer.SIZE + 1;
+
+    private final long[] insertProbes;
+    private final long[] lookupProbes;
+    private final int maxClusterLength;
+    private final int removedBuckets;
+    private final int capacity;
+    private final int size;
+    private final long resizeCount;
+    private final long growNanos;
+
+    HashTableStatistics(long[] insertProbes, long[] lookupProbes, int maxClusterLength, int removedBuckets, int capacity, int size, long resizeCount, long growNanos) {
+        this.insertProbes = insertProbes.clone();
+        this.lookupProbes = lookupProbes.clone();
+        this.maxClusterLength = maxClusterLength;
+        this.removedBuckets = removedBuckets;
+        this.capacity = capacity;
+        this.size = size;
+        this.resizeCount = resizeCount;
+        this.growNanos = growNanos;
+    }
+
+    /**
+     * Returns the histogram bucket for the number of additional probes
+     * @param probes the number of buckets probed after the first one
+     * @return the index in the histogram
+     */
+    static int histogramBucket(int probes) {
+        return Integer.SIZE - Integer.numberOfLeadingZeros(probes);
+    }
+
+    /**
+     * @return the histogram of additional probes needed to add an element
+     */
+    public long[] getInsertProbeHistogram() {
+        return this.insertProbes.clone();
+    }
+
+    /**
+     * @return the histogram of additional probes needed to find or remove an element, including elements not in the table
+     */
+    public long[] getLookupProbeHistogram() {
+        return this.lookupProbes.clone();
+    }
+
+    public long getInserts() {
+        return Arrays.stream(this.insertProbes).sum();
+    }
+
+    public long getLookups() {
+        return Arrays.stream(this.lookupProbes).sum();
+    }
+
+    /**
+     * @return the length of the longest run of buckets which are not empty, e.g. elements and removed elements
+     */
+    public int getMaxClusterLength() {
+        return this.maxClusterLength;
+    }
+
+    public int getRemovedBuckets() {
+        return this.removedBuckets;
+    }
+
+    /**
+     * @return the ratio of buckets holding a removed element to all buckets
+     */
+    public double getTombstoneRatio() {
+        return this.capacity == 0 ? 0 : this.removedBuckets / (double) this.capacity;
+    }
+
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    public int getSize() {
+        return this.size;
+    }
+
+    public long getResizeCount() {
+        return this.resizeCount;
+    }
+
+    /**
+     * @return the time spent growing the table in nanoseconds
+     */
+    public long getGrowNanos() {
+        return this.growNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("size=%d capacity=%d maxCluster=%d tombstones=%.3f resizes=%d grow=%dms inserts=%s lookups=%s",
+                this.size, this.capacity, this.maxClusterLength, this.getTombstoneRatio(), this.resizeCount, this.growNanos / 1_000_000,
+                histogramToString(this.insertProbes), histogramToString(this.lookupProbes));
+    }
+
+    private static String histogramToString(long[] histogram) {
+        int last = histogram.length - 1;
+        while (last > 0 && histogram[last] == 0) {
+            last--;
+        }
+        return Arrays.toString(Arrays.copyOf(histogram, last + 1));
+    }
+}
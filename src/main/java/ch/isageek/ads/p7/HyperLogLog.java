@@ -0,0 +1,218 @@
+package ch.isageek.ads.p7;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * Estimates the number of distinct elements using a fixed amount of memory.
+ * Every element is hashed to 64 bits, the first {@code precision} bits select one of {@code 2^precision} registers
+ * which keeps the longest run of leading zeros seen in the remaining bits.
+ * While only a few registers are set they are stored sparse as a sorted list of register and value, once the list
+ * needs as much memory as all registers it is converted to one byte per register.
+ * Two sketches of the same precision can be merged, the result estimates the distinct elements of both.
+ */
+public class HyperLogLog {
+
+    private final static int DEFAULT_PRECISION = 14;
+    private final static int MIN_PRECISION = 4;
+    private final static int MAX_PRECISION = 18;
+    private final static int VALUE_BITS = 6;
+    private final static int VALUE_MASK = (1 << VALUE_BITS) - 1;
+    private final static int MIN_BUFFER_SIZE = 16;
+
+    private final int precision;
+    private final int registerCount;
+    private byte[] registers;
+    // Sorted sparse registers, each encoded as register << VALUE_BITS | value
+    private int[] sparse = new int[0];
+    // Recently added sparse registers, not yet merged into sparse
+    private int[] buffer;
+    private int buffered;
+
+    public HyperLogLog() {
+        this(DEFAULT_PRECISION);
+    }
+
+    /**
+     * @param precision the number of bits selecting the register, between 4 and 18.
+     *                  The standard error is {@code 1.04 / sqrt(2^precision)}, the memory {@code 2^precision} bytes.
+     */
+    public HyperLogLog(int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException(String.format("The precision has to be between %d and %d, was %d", MIN_PRECISION, MAX_PRECISION, precision));
+        }
+        this.precision = precision;
+        this.registerCount = 1 << precision;
+        this.buffer = new int[Math.max(MIN_BUFFER_SIZE, this.registerCount / 64)];
+    }
+
+    /**
+     * Adds an element hashed with {@link MinimalPerfectHash#defaultHash(Object)}
+     * @param element the element
+     */
+    public void add(@NotNull Object element) {
+        this.addHash(MinimalPerfectHash.defaultHash(element));
+    }
+
+    /**
+     * Adds an element by its hash, the bits of the hash have to be evenly distributed
+     * @param hash the 64 bit hash of the element
+     */
+    public void addHash(long hash) {
+        final int register = (int) (hash >>> (Long.SIZE - this.precision));
+        // The marker bit limits the value if all remaining bits are zero
+        final int value = Long.numberOfLeadingZeros((hash << this.precision) | (1L << (this.precision - 1))) + 1;
+        if (this.registers != null) {
+            if (this.registers[register] < value) {
+                this.registers[register] = (byte) value;
+            }
+            return;
+        }
+        this.buffer[this.buffered++] = register << VALUE_BITS | value;
+        if (this.buffered == this.buffer.length) {
+            this.mergeBuffer();
+        }
+    }
+
+    private void mergeBuffer() {
+        final int[] added = Arrays.copyOf(this.buffer, this.buffered);
+        this.buffered = 0;
+        Arrays.sort(added);
+        this.sparse = mergeSparse(this.sparse, added);
+        // Sparse registers need four bytes, dense ones one byte
+        if (this.sparse.length * Integer.BYTES > this.registerCount) {
+            this.toDense();
+        }
+    }
+
+    /**
+     * Merges two sorted lists of sparse registers, keeping the biggest value of every register
+     */
+    private static int[] mergeSparse(int[] first, int[] second) {
+        final int[] merged = new int[first.length + second.length];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < first.length || j < second.length) {
+            final int next;
+            if (j == second.length || (i < first.length && first[i] < second[j])) {
+                next = first[i++];
+            } else {
+                next = second[j++];
+            }
+            // Equal registers are next to each other and sorted by value, so the last one has the biggest value
+            if (size > 0 && (merged[size - 1] >>> VALUE_BITS) == (next >>> VALUE_BITS)) {
+                merged[size - 1] = next;
+            } else {
+                merged[size++] = next;
+            }
+        }
+        return Arrays.copyOf(merged, size);
+    }
+
+    private void toDense() {
+        this.registers = new byte[this.registerCount];
+        for (int entry : this.sparse) {
+            this.registers[entry >>> VALUE_BITS] = (byte) (entry & VALUE_MASK);
+        }
+        this.sparse = null;
+        this.buffer = null;
+    }
+
+    /**
+     * Adds the elements of the other sketch to this one
+     * @param other a sketch of the same precision
+     */
+    public void merge(@NotNull HyperLogLog other) {
+        if (other.precision != this.precision) {
+            throw new IllegalArgumentException(String.format("Cannot merge a sketch of precision %d into one of precision %d", other.precision, this.precision));
+        }
+        if (other.registers == null) {
+            other.mergeBuffer();
+        }
+        if (this.registers == null) {
+            this.mergeBuffer();
+        }
+        if (this.registers == null && other.registers == null) {
+            this.sparse = mergeSparse(this.sparse, other.sparse);
+            if (this.sparse.length * Integer.BYTES > this.registerCount) {
+                this.toDense();
+            }
+            return;
+        }
+        if (this.registers == null) {
+            this.toDense();
+        }
+        if (other.registers == null) {
+            for (int entry : other.sparse) {
+                final int register = entry >>> VALUE_BITS;
+                this.registers[register] = (byte) Math.max(this.registers[register], entry & VALUE_MASK);
+            }
+        } else {
+            for (int register = 0; register < this.registerCount; register++) {
+                this.registers[register] = (byte) Math.max(this.registers[register], other.registers[register]);
+            }
+        }
+    }
+
+    /**
+     * @return the estimated number of distinct elements added
+     */
+    public long cardinality() {
+        double sum = 0;
+        int zeros;
+        if (this.registers == null) {
+            this.mergeBuffer();
+        }
+        if (this.registers == null) {
+            for (int entry : this.sparse) {
+                sum += 1.0 / (1L << (entry & VALUE_MASK));
+            }
+            zeros = this.registerCount - this.sparse.length;
+            sum += zeros;
+        } else {
+            zeros = 0;
+            for (byte value : this.registers) {
+                sum += 1.0 / (1L << value);
+                if (value == 0) {
+                    zeros++;
+                }
+            }
+        }
+        final double estimate = this.alpha() * this.registerCount * this.registerCount / sum;
+        // Linear counting is more accurate as long as there are empty registers
+        if (estimate <= 2.5 * this.registerCount && zeros > 0) {
+            return Math.round(this.registerCount * Math.log(this.registerCount / (double) zeros));
+        }
+        return Math.round(estimate);
+    }
+
+    private double alpha() {
+        switch (this.registerCount) {
+            case 16:
+                return 0.673;
+            case 32:
+                return 0.697;
+            case 64:
+                return 0.709;
+            default:
+                return 0.7213 / (1 + 1.079 / this.registerCount);
+        }
+    }
+
+    public int getPrecision() {
+        return this.precision;
+    }
+
+    public boolean isSparse() {
+        return this.registers == null;
+    }
+
+    /**
+     * @return the expected relative standard error of {@link #cardinality()}
+     */
+    public double getStandardError() {
+        return 1.04 / Math.sqrt(this.registerCount);
+    }
+}
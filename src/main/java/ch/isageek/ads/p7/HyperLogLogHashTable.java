@@ -0,0 +1,96 @@
+package ch.isageek.ads.p7;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.stream.Stream;
+
+/**
+ * A {@link HashTable} which adds every element to a {@link HyperLogLog} before adding it to another table.
+ * Removing an element does not change the sketch, it estimates the distinct elements ever added.
+ * @param <T> the type of the elements
+ */
+public class HyperLogLogHashTable<T> implements HashTable<T> {
+
+    private final HashTable<T> table;
+    private final HyperLogLog sketch;
+
+    public HyperLogLogHashTable(HashTable<T> table) {
+        this(table, new HyperLogLog());
+    }
+
+    /**
+     * @param table the table to add the elements to, elements already in it are added to the sketch
+     * @param sketch the sketch to update
+     */
+    public HyperLogLogHashTable(HashTable<T> table, HyperLogLog sketch) {
+        this.table = table;
+        this.sketch = sketch;
+        table.elements().forEach(sketch::add);
+    }
+
+    public HyperLogLog getSketch() {
+        return this.sketch;
+    }
+
+    /**
+     * @return the estimated number of distinct elements ever added
+     */
+    public long cardinality() {
+        return this.sketch.cardinality();
+    }
+
+    @Override
+    public int size() {
+        return this.table.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.table.isEmpty();
+    }
+
+    @Override
+    public void add(@NotNull T element) {
+        this.sketch.add(element);
+        this.table.add(element);
+    }
+
+    @Override
+    public boolean contains(@NotNull T element) {
+        return this.table.contains(element);
+    }
+
+    @Override
+    public boolean remove(@NotNull T element) {
+        return this.table.remove(element);
+    }
+
+    @Override
+    public void setLoadFactorForResize(float loadfactor) {
+        this.table.setLoadFactorForResize(loadfactor);
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return this.table.iterator();
+    }
+
+    @Override
+    public Stream<T> stream() {
+        return this.table.stream();
+    }
+
+    @Override
+    public Spliterator<T> spliterator() {
+        return this.table.spliterator();
+    }
+
+    @Override
+    public void addAll(@NotNull Collection<T> elements) {
+        elements.forEach(this.sketch::add);
+        this.table.addAll(elements);
+    }
+}
@@ -0,0 +1,219 @@
+package ch.isageek.ads.p7;
+
+import java.util.Arrays;
+import java.util.PrimitiveIterator;
+import java.util.stream.LongStream;
+
+/**
+ * A hashtable for primitive longs which follows the semantics of {@link HashTable}.
+ * The keys are stored directly in a long[] so adding or finding a key never boxes or allocates.
+ * Two keys are reserved as markers in the table: {@link #FREE} for buckets which never held a key and {@link #REMOVED}
+ * for buckets of removed keys. Both can still be added, they are just tracked with a flag outside of the table.
+ */
+public class LongHashSet {
+
+    static final long FREE = 0L;
+    static final long REMOVED = Long.MIN_VALUE;
+
+    private final static int DEFAULT_SIZE = 10;
+    private final static int GROW_FACTOR = 2;
+    private final static float DEFAULT_LOADFACTOR = 0.8f;
+    private final static float MIN_LOADFACTOR = 0.01f;
+    private final static float MAX_LOADFACTOR = 1.0f;
+    private final static AdsHashTable.ProbingMode DEFAULT_MODE = AdsHashTable.ProbingMode.QUADRATIC;
+
+    private final AdsHashTable.ProbingMode probingMode;
+    private long[] table;
+    // Number of keys stored in the table
+    private int size;
+    // Number of buckets which are not FREE, e.g. keys and removed keys
+    private int used;
+    private boolean containsFree;
+    private boolean containsRemoved;
+    private float loadFactorForResize;
+
+    public LongHashSet() {
+        this(DEFAULT_SIZE, DEFAULT_MODE);
+    }
+
+    public LongHashSet(int initialSize) {
+        this(initialSize, DEFAULT_MODE);
+    }
+
+    public LongHashSet(AdsHashTable.ProbingMode probingMode) {
+        this(DEFAULT_SIZE, probingMode);
+    }
+
+    public LongHashSet(int initialSize, AdsHashTable.ProbingMode probingMode) {
+        this.probingMode = probingMode;
+        this.allocateTable(initialSize == 0 ? 1 : initialSize);
+        this.loadFactorForResize = DEFAULT_LOADFACTOR;
+    }
+
+    private void allocateTable(int size) {
+        this.table = new long[this.probingMode.tableSize(size)];
+        this.size = 0;
+        this.used = 0;
+    }
+
+    public boolean isEmpty() {
+        return this.size() == 0;
+    }
+
+    public int size() {
+        return this.size + (this.containsFree ? 1 : 0) + (this.containsRemoved ? 1 : 0);
+    }
+
+    /**
+     * Returns a {@link LongStream} of all keys in the set.
+     * Unlike {@link HashTable#stream()} empty buckets are skipped as there is no <b>null</b> for primitives.
+     * @return a {@link LongStream} of all keys
+     */
+    public LongStream stream() {
+        LongStream reserved = LongStream.concat(
+                this.containsFree ? LongStream.of(FREE) : LongStream.empty(),
+                this.containsRemoved ? LongStream.of(REMOVED) : LongStream.empty());
+        return LongStream.concat(reserved, Arrays.stream(this.table).filter(LongHashSet::isKey));
+    }
+
+    public PrimitiveIterator.OfLong iterator() {
+        return this.stream().iterator();
+    }
+
+    public void add(long key) {
+        if (key == FREE) {
+            this.containsFree = true;
+            return;
+        }
+        if (key == REMOVED) {
+            this.containsRemoved = true;
+            return;
+        }
+        if (this.getCurrentLoad() >= this.loadFactorForResize) {
+            this.grow();
+        }
+        while (!this.insert(key)) {
+            this.grow();
+        }
+    }
+
+    public void addAll(long... keys) {
+        for (long key : keys) {
+            this.add(key);
+        }
+    }
+
+    private boolean insert(long key) {
+        final int originalIndex = this.generateIndex(key);
+        int index = originalIndex;
+        int firstRemoved = -1;
+        for (int count = 0; count < this.table.length; count++) {
+            final long current = this.table[index];
+            if (current == key) {
+                return true;
+            }
+            if (current == FREE) {
+                if (firstRemoved == -1) {
+                    this.used++;
+                } else {
+                    index = firstRemoved;
+                }
+                this.table[index] = key;
+                this.size++;
+                return true;
+            }
+            if (current == REMOVED && firstRemoved == -1) {
+                firstRemoved = index;
+            }
+            index = this.getNextPossibleIndex(originalIndex, count);
+        }
+        if (firstRemoved != -1) {
+            this.table[firstRemoved] = key;
+            this.size++;
+            return true;
+        }
+        return false;
+    }
+
+    public boolean contains(long key) {
+        if (key == FREE) {
+            return this.containsFree;
+        }
+        if (key == REMOVED) {
+            return this.containsRemoved;
+        }
+        return this.find(key) != -1;
+    }
+
+    public boolean remove(long key) {
+        if (key == FREE) {
+            final boolean contained = this.containsFree;
+            this.containsFree = false;
+            return contained;
+        }
+        if (key == REMOVED) {
+            final boolean contained = this.containsRemoved;
+            this.containsRemoved = false;
+            return contained;
+        }
+        final int found = this.find(key);
+        if (found != -1) {
+            this.table[found] = REMOVED;
+            this.size--;
+            return true;
+        }
+        return false;
+    }
+
+    private int find(long key) {
+        final int originalIndex = this.generateIndex(key);
+        int idx = originalIndex;
+        for (int count = 0; count < this.table.length; count++) {
+            // A FREE bucket has never held a key so no probing ever got to this position
+            if (this.table[idx] == FREE) {
+                return -1;
+            }
+            if (this.table[idx] == key) {
+                return idx;
+            }
+            idx = this.getNextPossibleIndex(originalIndex, count);
+        }
+        return -1;
+    }
+
+    /**
+     * Set the loadfactor which the table uses to grow
+     * @param loadFactor the loadfactor, should be between 0.01 and 1 (values above will be 1, values below will be 0.01)
+     */
+    public void setLoadFactorForResize(float loadFactor) {
+        this.loadFactorForResize = Math.max(MIN_LOADFACTOR, Math.min(MAX_LOADFACTOR, loadFactor));
+    }
+
+    private int generateIndex(long key) {
+        return this.probingMode.index(Long.hashCode(key), this.table.length);
+    }
+
+    private int getNextPossibleIndex(final int original, final int iteration) {
+        return this.probingMode.nextIndex(original, iteration, this.table.length);
+    }
+
+    private float getCurrentLoad() {
+        return this.used / (float) this.table.length;
+    }
+
+    private void grow() {
+        final long[] oldTable = this.table;
+        // Removed keys count towards the load, if they are the reason to grow we just clean up the table
+        final boolean onlyRemoved = this.size < this.loadFactorForResize * oldTable.length / GROW_FACTOR;
+        this.allocateTable(onlyRemoved ? oldTable.length : oldTable.length * GROW_FACTOR);
+        for (long key : oldTable) {
+            if (isKey(key)) {
+                this.insert(key);
+            }
+        }
+    }
+
+    private static boolean isKey(long key) {
+        return key != FREE && key != REMOVED;
+    }
+}
@@ -0,0 +1,375 @@
+package ch.isageek.ads.p7;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * A hashtable of longs whose buckets live in a memory mapped file instead of the java heap.
+ * The file contains a small header followed by the buckets, so opening an existing file only maps it, nothing is rehashed.
+ * Like in {@link LongHashSet} the keys {@link #FREE} and {@link #REMOVED} mark empty buckets and are tracked with flags in the header.
+ * The file is mapped in regions of {@link #REGION_BUCKETS} buckets, so tables bigger than 2GB are supported.
+ * When the table grows a new file is written next to the old one and then moved in its place.
+ * Changes are written to the file by the operating system, call {@link #force()} or {@link #close()} to make sure they are on disk.
+ */
+public class MappedLongHashTable implements HashTable<Long>, Closeable {
+
+    static final long FREE = 0L;
+    static final long REMOVED = Long.MIN_VALUE;
+
+    private final static int MAGIC = 0x41445348;
+    private final static int VERSION = 1;
+    private final static int HEADER_BYTES = 64;
+    private final static int MAGIC_OFFSET = 0;
+    private final static int VERSION_OFFSET = 4;
+    private final static int MODE_OFFSET = 8;
+    private final static int LOADFACTOR_OFFSET = 12;
+    private final static int CAPACITY_OFFSET = 16;
+    private final static int SIZE_OFFSET = 24;
+    private final static int USED_OFFSET = 32;
+    private final static int FLAGS_OFFSET = 40;
+    private final static byte FLAG_FREE = 1;
+    private final static byte FLAG_REMOVED = 2;
+
+    private final static int REGION_SHIFT = 27;
+    final static int REGION_BUCKETS = 1 << REGION_SHIFT;
+    private final static int REGION_MASK = REGION_BUCKETS - 1;
+
+    private final static int DEFAULT_SIZE = 1024;
+    private final static int GROW_FACTOR = 2;
+    private final static float DEFAULT_LOADFACTOR = 0.8f;
+    private final static float MIN_LOADFACTOR = 0.01f;
+    private final static float MAX_LOADFACTOR = 1.0f;
+    private final static AdsHashTable.ProbingMode DEFAULT_MODE = AdsHashTable.ProbingMode.LINEAR_SPREAD;
+
+    private final File file;
+    private AdsHashTable.ProbingMode probingMode;
+    private MappedByteBuffer header;
+    private MappedByteBuffer[] regions;
+    private int capacity;
+
+    /**
+     * Opens the table stored in the file, or creates a new one if the file does not exist
+     * @param file the file of the table
+     * @throws IOException if the file cannot be opened or is not a table
+     */
+    public MappedLongHashTable(File file) throws IOException {
+        this.file = file;
+        if (file.exists()) {
+            this.map();
+        } else {
+            create(file, DEFAULT_SIZE, DEFAULT_MODE, DEFAULT_LOADFACTOR);
+            this.map();
+        }
+    }
+
+    /**
+     * Creates a new table in the file, an existing file is overwritten
+     * @param file the file of the table
+     * @param initialSize the initial number of buckets
+     * @param probingMode the {@link AdsHashTable.ProbingMode} of the table
+     * @throws IOException if the file cannot be written
+     */
+    public MappedLongHashTable(File file, int initialSize, AdsHashTable.ProbingMode probingMode) throws IOException {
+        this.file = file;
+        create(file, initialSize == 0 ? 1 : initialSize, probingMode, DEFAULT_LOADFACTOR);
+        this.map();
+    }
+
+    private static void create(File file, int size, AdsHashTable.ProbingMode probingMode, float loadFactor) throws IOException {
+        final int capacity = probingMode.tableSize(size);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            final MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+            header.order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC_OFFSET, MAGIC);
+            header.putInt(VERSION_OFFSET, VERSION);
+            header.putInt(MODE_OFFSET, probingMode.ordinal());
+            header.putFloat(LOADFACTOR_OFFSET, loadFactor);
+            header.putLong(CAPACITY_OFFSET, capacity);
+            header.putLong(SIZE_OFFSET, 0);
+            header.putLong(USED_OFFSET, 0);
+            header.put(FLAGS_OFFSET, (byte) 0);
+            // Writing the last byte extends the file, the buckets read as FREE until they are written
+            if (capacity > 0) {
+                channel.map(FileChannel.MapMode.READ_WRITE, HEADER_BYTES + ((long) capacity << 3) - 1, 1).put(0, (byte) 0);
+            }
+            header.force();
+        }
+    }
+
+    private void map() throws IOException {
+        try (FileChannel channel = FileChannel.open(this.file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            if (channel.size() < HEADER_BYTES) {
+                throw new IOException(String.format("%s is not a hashtable file", this.file));
+            }
+            this.header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+            this.header.order(ByteOrder.LITTLE_ENDIAN);
+            if (this.header.getInt(MAGIC_OFFSET) != MAGIC || this.header.getInt(VERSION_OFFSET) != VERSION) {
+                throw new IOException(String.format("%s is not a hashtable file", this.file));
+            }
+            this.probingMode = AdsHashTable.ProbingMode.values()[this.header.getInt(MODE_OFFSET)];
+            this.capacity = (int) this.header.getLong(CAPACITY_OFFSET);
+            if (channel.size() < HEADER_BYTES + ((long) this.capacity << 3)) {
+                throw new IOException(String.format("%s is truncated", this.file));
+            }
+            this.regions = new MappedByteBuffer[(this.capacity + REGION_MASK) >>> REGION_SHIFT];
+            for (int region = 0; region < this.regions.length; region++) {
+                final long start = HEADER_BYTES + ((long) region << REGION_SHIFT << 3);
+                final long buckets = Math.min(REGION_BUCKETS, this.capacity - ((long) region << REGION_SHIFT));
+                this.regions[region] = channel.map(FileChannel.MapMode.READ_WRITE, start, buckets << 3);
+                this.regions[region].order(ByteOrder.LITTLE_ENDIAN);
+            }
+        }
+    }
+
+    private long bucket(int index) {
+        return this.regions[index >>> REGION_SHIFT].getLong((index & REGION_MASK) << 3);
+    }
+
+    private void setBucket(int index, long key) {
+        this.regions[index >>> REGION_SHIFT].putLong((index & REGION_MASK) << 3, key);
+    }
+
+    /**
+     * @return the number of keys in the table as a long, {@link #size()} is capped at {@link Integer#MAX_VALUE}
+     */
+    public long longSize() {
+        final byte flags = this.header.get(FLAGS_OFFSET);
+        return this.header.getLong(SIZE_OFFSET) + ((flags & FLAG_FREE) != 0 ? 1 : 0) + ((flags & FLAG_REMOVED) != 0 ? 1 : 0);
+    }
+
+    @Override
+    public int size() {
+        return (int) Math.min(Integer.MAX_VALUE, this.longSize());
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.longSize() == 0;
+    }
+
+    @Override
+    public void add(@NotNull Long element) {
+        this.add(element.longValue());
+    }
+
+    public void add(long key) {
+        if (key == FREE || key == REMOVED) {
+            this.setFlag(key == FREE ? FLAG_FREE : FLAG_REMOVED, true);
+            return;
+        }
+        if (this.header.getLong(USED_OFFSET) >= this.getLoadFactor() * this.capacity) {
+            this.grow();
+        }
+        while (!this.insert(key)) {
+            this.grow();
+        }
+    }
+
+    private boolean insert(long key) {
+        final int originalIndex = this.generateIndex(key);
+        int index = originalIndex;
+        int firstRemoved = -1;
+        for (int count = 0; count < this.capacity; count++) {
+            final long current = this.bucket(index);
+            if (current == key) {
+                return true;
+            }
+            if (current == FREE) {
+                if (firstRemoved == -1) {
+                    this.header.putLong(USED_OFFSET, this.header.getLong(USED_OFFSET) + 1);
+                } else {
+                    index = firstRemoved;
+                }
+                this.claim(index, key);
+                return true;
+            }
+            if (current == REMOVED && firstRemoved == -1) {
+                firstRemoved = index;
+            }
+            index = this.getNextPossibleIndex(originalIndex, count);
+        }
+        if (firstRemoved != -1) {
+            this.claim(firstRemoved, key);
+            return true;
+        }
+        return false;
+    }
+
+    private void claim(int index, long key) {
+        this.setBucket(index, key);
+        this.header.putLong(SIZE_OFFSET, this.header.getLong(SIZE_OFFSET) + 1);
+    }
+
+    @Override
+    public boolean contains(@NotNull Long element) {
+        return this.contains(element.longValue());
+    }
+
+    public boolean contains(long key) {
+        if (key == FREE || key == REMOVED) {
+            return this.hasFlag(key == FREE ? FLAG_FREE : FLAG_REMOVED);
+        }
+        return this.find(key) != -1;
+    }
+
+    private int find(long key) {
+        final int originalIndex = this.generateIndex(key);
+        int idx = originalIndex;
+        for (int count = 0; count < this.capacity; count++) {
+            final long current = this.bucket(idx);
+            // A FREE bucket has never held a key so no probing ever got to this position
+            if (current == FREE) {
+                return -1;
+            }
+            if (current == key) {
+                return idx;
+            }
+            idx = this.getNextPossibleIndex(originalIndex, count);
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean remove(@NotNull Long element) {
+        return this.remove(element.longValue());
+    }
+
+    public boolean remove(long key) {
+        if (key == FREE || key == REMOVED) {
+            final byte flag = key == FREE ? FLAG_FREE : FLAG_REMOVED;
+            final boolean contained = this.hasFlag(flag);
+            this.setFlag(flag, false);
+            return contained;
+        }
+        final int found = this.find(key);
+        if (found != -1) {
+            this.setBucket(found, REMOVED);
+            this.header.putLong(SIZE_OFFSET, this.header.getLong(SIZE_OFFSET) - 1);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void setLoadFactorForResize(float loadFactor) {
+        this.header.putFloat(LOADFACTOR_OFFSET, Math.max(MIN_LOADFACTOR, Math.min(MAX_LOADFACTOR, loadFactor)));
+    }
+
+    private float getLoadFactor() {
+        return this.header.getFloat(LOADFACTOR_OFFSET);
+    }
+
+    @Override
+    public Iterator<Long> iterator() {
+        return this.stream().iterator();
+    }
+
+    /**
+     * {@inheritDoc}
+     * The keys {@link #FREE} and {@link #REMOVED} are not stored in a bucket, if they were added they precede the buckets.
+     */
+    @Override
+    public Stream<Long> stream() {
+        final LongStream reserved = LongStream.concat(
+                this.hasFlag(FLAG_FREE) ? LongStream.of(FREE) : LongStream.empty(),
+                this.hasFlag(FLAG_REMOVED) ? LongStream.of(REMOVED) : LongStream.empty());
+        final Stream<Long> buckets = LongStream.range(0, this.capacity)
+                .mapToObj(idx -> {
+                    final long key = this.bucket((int) idx);
+                    return key == FREE || key == REMOVED ? null : key;
+                });
+        return Stream.concat(reserved.boxed(), buckets);
+    }
+
+    @Override
+    public void addAll(@NotNull Collection<Long> elements) {
+        elements.forEach(this::add);
+    }
+
+    /**
+     * Writes all changes of the mapped buckets to the file
+     */
+    public void force() {
+        this.header.force();
+        for (MappedByteBuffer region : this.regions) {
+            region.force();
+        }
+    }
+
+    @Override
+    public void close() {
+        this.force();
+        this.header = null;
+        this.regions = null;
+    }
+
+    private void grow() {
+        final long size = this.header.getLong(SIZE_OFFSET);
+        final float loadFactor = this.getLoadFactor();
+        // Removed keys count towards the load, if they are the reason to grow we just clean up the table
+        final boolean onlyRemoved = size < loadFactor * this.capacity / GROW_FACTOR;
+        final File grown = new File(this.file.getPath() + ".grow");
+        try {
+            create(grown, onlyRemoved ? this.capacity : grownCapacity(this.capacity, this.probingMode), this.probingMode, loadFactor);
+            final MappedLongHashTable target = new MappedLongHashTable(grown);
+            for (int idx = 0; idx < this.capacity; idx++) {
+                final long key = this.bucket(idx);
+                if (key != FREE && key != REMOVED) {
+                    target.insert(key);
+                }
+            }
+            target.header.put(FLAGS_OFFSET, this.header.get(FLAGS_OFFSET));
+            target.close();
+            this.close();
+            Files.move(grown.toPath(), this.file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            this.map();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @param capacity the current number of buckets
+     * @param probingMode the probing mode of the table
+     * @return the number of buckets of the grown table, capped at the largest table the probing mode supports
+     * @throws IllegalStateException if the table already has the largest size
+     */
+    static int grownCapacity(int capacity, AdsHashTable.ProbingMode probingMode) {
+        final int grown = (int) Math.min((long) capacity * GROW_FACTOR, probingMode.maxSize());
+        if (probingMode.tableSize(grown) <= capacity) {
+            throw new IllegalStateException(String.format("MappedLongHashTable only supports up to %d buckets with %s probing", capacity, probingMode));
+        }
+        return grown;
+    }
+
+    private boolean hasFlag(byte flag) {
+        return (this.header.get(FLAGS_OFFSET) & flag) != 0;
+    }
+
+    private void setFlag(byte flag, boolean set) {
+        final byte flags = this.header.get(FLAGS_OFFSET);
+        this.header.put(FLAGS_OFFSET, (byte) (set ? flags | flag : flags & ~flag));
+    }
+
+    private int generateIndex(long key) {
+        return this.probingMode.index(Long.hashCode(key), this.capacity);
+    }
+
+    private int getNextPossibleIndex(final int original, final int iteration) {
+        return this.probingMode.nextIndex(original, iteration, this.capacity);
+    }
+}
@@ -0,0 +1,285 @@
+package ch.isageek.ads.p7;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.ToLongFunction;
+
+/**
+ * An immutable minimal perfect hash function: it maps each of the n keys it was built from to a distinct index in [0, n).
+ * The keys themselves are not stored, so keys which were not part of the set are mapped to an arbitrary index or -1.
+ * <p>
+ * The function is built like BBHash: every level has a bitset, a key sets its bit in the first level where no other
+ * remaining key maps to the same position. The index of a key is the number of set bits before its bit, which is
+ * computed in constant time with a rank table of one int per {@link #RANK_BLOCK_WORDS} words.
+ * Keys still colliding after {@link #MAX_LEVELS} levels are stored in a small sorted fallback array.
+ * With the default gamma of 1 this needs about 3 bits per key.
+ * @param <T> the type of the keys
+ */
+public class MinimalPerfectHash<T> {
+
+    private final static int MAGIC = 0x4d504831;
+    private final static int MAX_LEVELS = 32;
+    private final static int RANK_BLOCK_WORDS = 8;
+
+    private final ToLongFunction<? super T> hashFunction;
+    private final int size;
+    // Size of every level in bits
+    private final int[] levelBits;
+    // Index of the first word of every level
+    private final int[] levelOffsets;
+    private final long[] words;
+    private final int[] ranks;
+    private final long[] fallback;
+
+    private MinimalPerfectHash(ToLongFunction<? super T> hashFunction, int size, int[] levelBits, long[] words, long[] fallback) {
+        this.hashFunction = hashFunction;
+        this.size = size;
+        this.levelBits = levelBits;
+        this.levelOffsets = new int[levelBits.length];
+        for (int level = 1; level < levelBits.length; level++) {
+            this.levelOffsets[level] = this.levelOffsets[level - 1] + levelBits[level - 1] / Long.SIZE;
+        }
+        this.words = words;
+        this.fallback = fallback;
+        this.ranks = new int[(words.length + RANK_BLOCK_WORDS - 1) / RANK_BLOCK_WORDS + 1];
+        int rank = 0;
+        for (int word = 0; word < words.length; word++) {
+            if (word % RANK_BLOCK_WORDS == 0) {
+                this.ranks[word / RANK_BLOCK_WORDS] = rank;
+            }
+            rank += Long.bitCount(words[word]);
+        }
+        this.ranks[this.ranks.length - 1] = rank;
+    }
+
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * Returns the index of the key
+     * @param key a key of the set the function was built from
+     * @return the index of the key in [0, {@link #size()}), an arbitrary index or -1 for other keys
+     */
+    public int indexOf(@NotNull T key) {
+        final long hash = this.hashFunction.applyAsLong(key);
+        for (int level = 0; level < this.levelBits.length; level++) {
+            final int position = position(hash, level, this.levelBits[level]);
+            final int word = this.levelOffsets[level] + (position >>> 6);
+            if ((this.words[word] & (1L << position)) != 0) {
+                return this.rank(word, position & 63);
+            }
+        }
+        final int found = Arrays.binarySearch(this.fallback, hash);
+        return found < 0 ? -1 : this.ranks[this.ranks.length - 1] + found;
+    }
+
+    private int rank(int word, int bit) {
+        int rank = this.ranks[word / RANK_BLOCK_WORDS];
+        for (int idx = word - word % RANK_BLOCK_WORDS; idx < word; idx++) {
+            rank += Long.bitCount(this.words[idx]);
+        }
+        return rank + Long.bitCount(this.words[word] & ((1L << bit) - 1));
+    }
+
+    /**
+     * @return the number of keys
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * @return the number of bits used by the function including the rank table and the fallback
+     */
+    public long bitSize() {
+        return ((long) this.words.length + this.fallback.length) * Long.SIZE + (long) this.ranks.length * Integer.SIZE;
+    }
+
+    /**
+     * Writes the function, the hash function has to be passed again when reading it
+     * @param out the output to write to
+     * @throws IOException if writing fails
+     */
+    public void writeTo(@NotNull DataOutput out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(this.size);
+        out.writeInt(this.levelBits.length);
+        for (int bits : this.levelBits) {
+            out.writeInt(bits);
+        }
+        for (long word : this.words) {
+            out.writeLong(word);
+        }
+        out.writeInt(this.fallback.length);
+        for (long hash : this.fallback) {
+            out.writeLong(hash);
+        }
+    }
+
+    /**
+     * Reads a function written with {@link #writeTo(DataOutput)} which was built with the default hash function
+     * @param in the input to read from
+     * @param <T> the type of the keys
+     * @return the function
+     * @throws IOException if reading fails or the input does not contain a function
+     */
+    public static <T> MinimalPerfectHash<T> readFrom(@NotNull DataInput in) throws IOException {
+        return readFrom(in, MinimalPerfectHash::defaultHash);
+    }
+
+    public static <T> MinimalPerfectHash<T> readFrom(@NotNull DataInput in, @NotNull ToLongFunction<? super T> hashFunction) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("The input does not contain a minimal perfect hash");
+        }
+        final int size = in.readInt();
+        final int[] levelBits = new int[in.readInt()];
+        int wordCount = 0;
+        for (int level = 0; level < levelBits.length; level++) {
+            levelBits[level] = in.readInt();
+            wordCount += levelBits[level] / Long.SIZE;
+        }
+        final long[] words = new long[wordCount];
+        for (int word = 0; word < words.length; word++) {
+            words[word] = in.readLong();
+        }
+        final long[] fallback = new long[in.readInt()];
+        for (int idx = 0; idx < fallback.length; idx++) {
+            fallback[idx] = in.readLong();
+        }
+        return new MinimalPerfectHash<>(hashFunction, size, levelBits, words, fallback);
+    }
+
+    /**
+     * The default 64 bit hash: strings are hashed over all their characters, other keys use their mixed hashcode
+     * @param key the key
+     * @return the hash of the key
+     */
+    public static long defaultHash(@NotNull Object key) {
+        if (key instanceof CharSequence) {
+            final CharSequence chars = (CharSequence) key;
+            long hash = 0xcbf29ce484222325L;
+            for (int idx = 0; idx < chars.length(); idx++) {
+                hash = (hash ^ chars.charAt(idx)) * 0x100000001b3L;
+            }
+            return mix(hash);
+        }
+        return mix(key.hashCode());
+    }
+
+    private static int position(long hash, int level, int bits) {
+        final long mixed = mix(hash + level * 0x9E3779B97F4A7C15L);
+        // Maps the upper half of the hash to [0, bits) without a division
+        return (int) (((mixed >>> 32) * bits) >>> 32);
+    }
+
+    /**
+     * The finalizer of murmur3 for 64 bits
+     */
+    private static long mix(long hash) {
+        long h = hash;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    public static class Builder<T> {
+        private final static double DEFAULT_GAMMA = 1.0;
+
+        private ToLongFunction<? super T> hashFunction = MinimalPerfectHash::defaultHash;
+        private double gamma = DEFAULT_GAMMA;
+
+        /**
+         * @param hashFunction the 64 bit hash of the keys, no two keys may have the same hash
+         * @return the builder
+         */
+        public Builder<T> hashFunction(@NotNull ToLongFunction<? super T> hashFunction) {
+            this.hashFunction = hashFunction;
+            return this;
+        }
+
+        /**
+         * @param gamma the size of each level relative to its keys, bigger values build faster and find keys in earlier levels but need more bits
+         * @return the builder
+         */
+        public Builder<T> gamma(double gamma) {
+            if (gamma < 1) {
+                throw new IllegalArgumentException(String.format("Gamma has to be at least 1, was %f", gamma));
+            }
+            this.gamma = gamma;
+            return this;
+        }
+
+        public MinimalPerfectHash<T> build(@NotNull HashTable<T> keys) {
+            return this.build(keys.stream().filter(Objects::nonNull).mapToLong(this.hashFunction).toArray());
+        }
+
+        /**
+         * @param keys the keys, they have to be distinct
+         * @return the function
+         * @throws IllegalArgumentException if two keys have the same hash
+         */
+        public MinimalPerfectHash<T> build(@NotNull Collection<? extends T> keys) {
+            return this.build(keys.stream().mapToLong(this.hashFunction).toArray());
+        }
+
+        private MinimalPerfectHash<T> build(long[] hashes) {
+            final long[] sorted = hashes.clone();
+            Arrays.sort(sorted);
+            for (int idx = 1; idx < sorted.length; idx++) {
+                if (sorted[idx] == sorted[idx - 1]) {
+                    throw new IllegalArgumentException(String.format("Two keys have the same hash %d", sorted[idx]));
+                }
+            }
+            final List<long[]> levels = new ArrayList<>();
+            long[] remaining = hashes;
+            int remainingCount = hashes.length;
+            while (remainingCount > 0 && levels.size() < MAX_LEVELS) {
+                final int level = levels.size();
+                final int wordCount = (int) Math.max(1, Math.ceil(this.gamma * remainingCount / Long.SIZE));
+                final int bits = wordCount * Long.SIZE;
+                final long[] seen = new long[wordCount];
+                final long[] collisions = new long[wordCount];
+                for (int idx = 0; idx < remainingCount; idx++) {
+                    final int position = position(remaining[idx], level, bits);
+                    if ((seen[position >>> 6] & (1L << position)) != 0) {
+                        collisions[position >>> 6] |= 1L << position;
+                    } else {
+                        seen[position >>> 6] |= 1L << position;
+                    }
+                }
+                // Keys which collided move on to the next level
+                int next = 0;
+                final long[] colliding = new long[remainingCount];
+                for (int idx = 0; idx < remainingCount; idx++) {
+                    final int position = position(remaining[idx], level, bits);
+                    if ((collisions[position >>> 6] & (1L << position)) != 0) {
+                        colliding[next++] = remaining[idx];
+                    }
+                }
+                for (int word = 0; word < wordCount; word++) {
+                    seen[word] &= ~collisions[word];
+                }
+                levels.add(seen);
+                remaining = colliding;
+                remainingCount = next;
+            }
+            final int[] levelBits = levels.stream().mapToInt(words -> words.length * Long.SIZE).toArray();
+            final long[] words = levels.stream().flatMapToLong(Arrays::stream).toArray();
+            final long[] fallback = Arrays.copyOf(remaining, remainingCount);
+            Arrays.sort(fallback);
+            return new MinimalPerfectHash<>(this.hashFunction, hashes.length, levelBits, words, fallback);
+        }
+    }
+}
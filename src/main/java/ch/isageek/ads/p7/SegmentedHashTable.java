@@ -0,0 +1,138 @@
+package ch.isageek.ads.p7;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * A hashtable split into segments, each of them an independent {@link AdsHashTable}.
+ * The upper bits of the mixed hashcode select the segment, the segment then uses the hashcode like any {@link AdsHashTable}.
+ * Every segment grows on its own, so growing only moves the elements of one segment at a time, and the table can hold
+ * more elements than fit into a single array or the size list of {@link AdsHashTable.ProbingMode#QUADRATIC}.
+ * @param <T> the type of the elements
+ */
+public class SegmentedHashTable<T> implements HashTable<T> {
+
+    private final static int DEFAULT_SEGMENTS = 16;
+    private final static int DEFAULT_SEGMENT_SIZE = 10;
+    private final static int MAX_SEGMENTS = 1 << 16;
+    private final static AdsHashTable.ProbingMode DEFAULT_MODE = AdsHashTable.ProbingMode.QUADRATIC;
+
+    private final AdsHashTable<T>[] segments;
+    private final int segmentShift;
+
+    public SegmentedHashTable() {
+        this(DEFAULT_SEGMENTS, DEFAULT_SEGMENT_SIZE, DEFAULT_MODE);
+    }
+
+    public SegmentedHashTable(AdsHashTable.ProbingMode probingMode) {
+        this(DEFAULT_SEGMENTS, DEFAULT_SEGMENT_SIZE, probingMode);
+    }
+
+    /**
+     * @param segments the number of segments, rounded up to a power of two
+     * @param initialSegmentSize the initial size of each segment
+     * @param probingMode the {@link AdsHashTable.ProbingMode} of the segments
+     */
+    public SegmentedHashTable(int segments, int initialSegmentSize, AdsHashTable.ProbingMode probingMode) {
+        if (segments < 1 || segments > MAX_SEGMENTS) {
+            throw new IllegalArgumentException(String.format("The number of segments has to be between 1 and %d, was %d", MAX_SEGMENTS, segments));
+        }
+        final int bits = Integer.SIZE - Integer.numberOfLeadingZeros(segments - 1);
+        this.segments = allocateSegments(1 << bits);
+        // Shifting an int by 32 does nothing, a single segment uses the shift of 31 and masks the bit away
+        this.segmentShift = bits == 0 ? Integer.SIZE - 1 : Integer.SIZE - bits;
+        for (int i = 0; i < this.segments.length; i++) {
+            this.segments[i] = new AdsHashTable<>(initialSegmentSize, probingMode);
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <T> AdsHashTable<T>[] allocateSegments(int length) {
+        return new AdsHashTable[length];
+    }
+
+    private AdsHashTable<T> segmentFor(@NotNull T element) {
+        final int hash = AdsHashTable.ProbingMode.spread(element.hashCode());
+        return this.segments[(hash >>> this.segmentShift) & (this.segments.length - 1)];
+    }
+
+    /**
+     * @return the number of elements in the table as a long, {@link #size()} is capped at {@link Integer#MAX_VALUE}
+     */
+    public long longSize() {
+        long size = 0;
+        for (AdsHashTable<T> segment : this.segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    @Override
+    public int size() {
+        return (int) Math.min(Integer.MAX_VALUE, this.longSize());
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return Arrays.stream(this.segments).allMatch(AdsHashTable::isEmpty);
+    }
+
+    @Override
+    public void add(@NotNull T element) {
+        this.segmentFor(element).add(element);
+    }
+
+    @Override
+    public boolean contains(@NotNull T element) {
+        return this.segmentFor(element).contains(element);
+    }
+
+    @Override
+    public boolean remove(@NotNull T element) {
+        return this.segmentFor(element).remove(element);
+    }
+
+    @Override
+    public void setLoadFactorForResize(float loadfactor) {
+        for (AdsHashTable<T> segment : this.segments) {
+            segment.setLoadFactorForResize(loadfactor);
+        }
+    }
+
+    /**
+     * Enables or disables incremental resizing of all segments, see {@link AdsHashTable#setIncrementalResize(boolean)}
+     * @param incrementalResize true to resize incrementally
+     */
+    public void setIncrementalResize(boolean incrementalResize) {
+        for (AdsHashTable<T> segment : this.segments) {
+            segment.setIncrementalResize(incrementalResize);
+        }
+    }
+
+    public int getSegmentCount() {
+        return this.segments.length;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return this.stream().iterator();
+    }
+
+    /**
+     * {@inheritDoc}
+     * The buckets of the segments follow each other.
+     */
+    @Override
+    public Stream<T> stream() {
+        return Arrays.stream(this.segments).flatMap(AdsHashTable::stream);
+    }
+
+    @Override
+    public void addAll(@NotNull Collection<T> elements) {
+        elements.forEach(this::add);
+    }
+}
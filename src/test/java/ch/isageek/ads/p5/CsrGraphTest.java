@@ -0,0 +1,83 @@
+package ch.isageek.ads.p5;
+
+import ch.isageek.ads.p5.impl.CsrGraph;
+import ch.isageek.ads.p5.impl.GraphList;
+import org.junit.Test;
+import org.unitils.reflectionassert.ReflectionComparatorMode;
+
+import java.io.File;
+import java.net.URL;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static java.util.Arrays.asList;
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertNotNull;
+import static org.unitils.reflectionassert.ReflectionAssert.assertReflectionEquals;
+
+public class CsrGraphTest {
+
+    @Test
+    public void testCopyGraph() throws Exception {
+        Graph graph = new GraphList();
+        graph.addNode("a");
+        graph.addNode("b");
+        graph.addNode("c");
+        graph.addEdge("a", "b", 2);
+        graph.addEdge("a", "c", 3);
+        graph.addEdge("c", "a", 1);
+
+        CsrGraph csr = CsrGraph.of(graph);
+
+        assertEquals(3, csr.getNumberOfNodes());
+        assertEquals(3, csr.getNumberOfEdges());
+        assertReflectionEquals(asList("b:2", "c:3"), toStrings(csr.getEdgesFor("a")), ReflectionComparatorMode.LENIENT_ORDER);
+        assertEquals(0, csr.getEdgesFor("b").size());
+
+        final int a = csr.getNodeId("a");
+        assertEquals(2, csr.getEdgeEnd(a) - csr.getEdgeStart(a));
+        final int edge = csr.getEdgeStart(csr.getNodeId("c"));
+        assertEquals("a", csr.getLabel(csr.getTarget(edge)));
+        assertEquals(1, csr.getWeight(edge));
+        // Nodes are cached, so the same node is returned every time
+        assertEquals(csr.getNode("a"), csr.getEdgesFor("c").get(0).getDestination());
+    }
+
+    @Test
+    public void testReadFromFile() throws Exception {
+        CsrGraph graph = CsrGraph.fromFile(getFile("graph_peruseall16.2.txt"));
+
+        assertEquals(6, graph.getNumberOfNodes());
+        assertEquals(11, graph.getNumberOfEdges());
+        List<GraphSearch.SearchResult> results = GraphSearch.breadthFirstSearch(graph, "1");
+        List<String> result = results.stream().map(res -> String.format("%s:%d", res.getNode().getValue(), res.getCost())).collect(Collectors.toList());
+        assertReflectionEquals(asList("1:0", "2:1", "3:1", "4:2", "6:2", "5:3"), result, ReflectionComparatorMode.LENIENT_ORDER);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testAddNode() throws Exception {
+        CsrGraph.of(new GraphList()).addNode("a");
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testAddEdge() throws Exception {
+        CsrGraph.fromFile(getFile("simple_graph.csv")).addEdge("Bern", "Zürich", 1);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testReadTwice() throws Exception {
+        CsrGraph graph = CsrGraph.fromFile(getFile("simple_graph.csv"));
+        graph.readFromFile(getFile("simple_graph.csv"));
+    }
+
+    private List<String> toStrings(List<Edge> edges) {
+        return edges.stream().map(edge -> String.format("%s:%d", edge.getDestination().getValue(), edge.getCost())).collect(Collectors.toList());
+    }
+
+    private File getFile(String name) throws Exception {
+        ClassLoader classloader = Thread.currentThread().getContextClassLoader();
+        URL path = classloader.getResource(name);
+        assertNotNull(path);
+        return new File(path.toURI());
+    }
+}
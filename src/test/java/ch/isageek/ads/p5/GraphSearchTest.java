@@ -1,5 +1,6 @@
 package ch.isageek.ads.p5;
 
+import ch.isageek.ads.p5.impl.GraphFlatMatrix;
 import ch.isageek.ads.p5.impl.GraphList;
 import ch.isageek.ads.p5.impl.GraphHashmapMatrix;
 import ch.isageek.ads.p5.impl.GraphMatrix;
@@ -11,13 +12,18 @@ import org.unitils.reflectionassert.ReflectionComparatorMode;
 
 import java.io.File;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Random;
 import java.util.stream.Collectors;
 
 import static ch.isageek.ads.p5.GraphSearch.SearchResult;
 import static java.util.Arrays.asList;
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
 import static junit.framework.TestCase.assertNotNull;
+import static junit.framework.TestCase.assertTrue;
 import static org.unitils.reflectionassert.ReflectionAssert.assertReflectionEquals;
 
 @RunWith(Parameterized.class)
@@ -31,7 +37,7 @@ public class GraphSearchTest {
 
     @Parameterized.Parameters(name = "{0}")
     public static Collection<Class> getClasses() {
-        return asList(GraphHashmapMatrix.class, GraphList.class, GraphMatrix.class);
+        return asList(GraphHashmapMatrix.class, GraphList.class, GraphMatrix.class, GraphFlatMatrix.class);
     }
 
 
@@ -101,6 +107,144 @@ public class GraphSearchTest {
         assertReflectionEquals(expectedAsString, result, ReflectionComparatorMode.LENIENT_ORDER);
     }
 
+    @Test
+    public void testBreadthFirstSearchReusesArrays() throws Exception {
+        readGraph("graph_peruseall16.2.txt");
+        BreadthFirstSearch search = new BreadthFirstSearch(graph);
+
+        BreadthFirstSearch.Result result = search.search("1");
+        assertEquals(6, result.size());
+        assertEquals("1", result.getLabel(0));
+        assertEquals(0, result.getCost(0));
+        assertEquals(-1, result.getPredecessor(graph.getNodeId("1")));
+        final int five = graph.getNodeId("5");
+        assertEquals(3, result.getCostOf(five));
+        assertEquals(2, result.getCostOf(result.getPredecessor(five)));
+
+        graph.addNode("7");
+        graph.addEdge("5", "7", 4);
+        result = search.search("5");
+        assertEquals(4, result.getCostOf(graph.getNodeId("7")));
+        assertTrue(result.isReached(graph.getNodeId("1")));
+        result = search.search("7");
+        assertEquals(1, result.size());
+        assertFalse(result.isReached(five));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testBreadthFirstSearchResultInvalidated() throws Exception {
+        readGraph("simple_graph.csv");
+        BreadthFirstSearch search = new BreadthFirstSearch(graph);
+        BreadthFirstSearch.Result result = search.search("Zürich");
+        search.search("Bern");
+        result.size();
+    }
+
+    @Test
+    public void testDirectionOptimizingBFS() throws Exception {
+        // Low diameter graph, every node is connected to a hub and to a few random nodes
+        final Random random = new Random(3);
+        for (int i = 0; i < 500; i++) {
+            graph.addNode(Integer.toString(i));
+        }
+        for (int i = 1; i < 500; i++) {
+            graph.addEdge(Integer.toString(i % 10), Integer.toString(i), 1);
+            graph.addEdge(Integer.toString(i), Integer.toString(random.nextInt(500)), 1);
+            graph.addEdge(Integer.toString(i), Integer.toString(random.nextInt(500)), 1);
+        }
+        graph.removeNode("250");
+
+        BreadthFirstSearch search = new BreadthFirstSearch(graph);
+        List<String> expected = toStrings(search.search("7").asList());
+        search.setDirectionOptimizing(true);
+        BreadthFirstSearch.Result result = search.search("7");
+
+        // All edges cost 1, so the cost is the level and does not depend on the predecessor
+        assertReflectionEquals(expected, toStrings(result.asList()), ReflectionComparatorMode.LENIENT_ORDER);
+        assertEquals(graph.hasIncomingIndex(), result.getBottomUpLevels() > 0);
+        for (int index = 1; index < result.size(); index++) {
+            final int id = result.getId(index);
+            assertEquals(result.getCostOf(result.getPredecessor(id)) + 1, result.getCostOf(id));
+        }
+        assertReflectionEquals(expected, toStrings(GraphSearch.directionOptimizingBreadthFirstSearch(graph, "7")),
+                ReflectionComparatorMode.LENIENT_ORDER);
+    }
+
+    @Test
+    public void testAnyIncoming() throws Exception {
+        readGraph("graph_peruseall16.2.txt");
+        graph.addNode("7");
+        graph.addEdge("7", "5", 2);
+        graph.removeEdge("7", "5");
+        graph.addEdge("7", "5", 3);
+        final int five = graph.getNodeId("5");
+
+        final List<String> sources = new ArrayList<>();
+        assertFalse(graph.anyIncoming(five, (source, cost) -> !sources.add(String.format("%s:%d", graph.getLabel(source), cost))));
+        assertTrue(sources.contains("7:3"));
+        assertFalse(sources.contains("7:2"));
+        assertTrue(graph.anyIncoming(five, (source, cost) -> source == graph.getNodeId("7")));
+
+        graph.removeNode("7");
+        assertFalse(graph.anyIncoming(five, (source, cost) -> graph.getLabel(source).equals("7")));
+    }
+
+    @Test
+    public void testParallelBFS() throws Exception {
+        final Random random = new Random(5);
+        for (int i = 0; i < 3000; i++) {
+            graph.addNode(Integer.toString(i));
+        }
+        for (int i = 1; i < 3000; i++) {
+            graph.addEdge(Integer.toString(i / 3), Integer.toString(i), 1);
+            graph.addEdge(Integer.toString(i), Integer.toString(random.nextInt(3000)), 1);
+        }
+
+        BreadthFirstSearch search = new BreadthFirstSearch(graph);
+        List<String> expected = toStrings(search.search("0").asList());
+        search.setParallel(true);
+        for (String start : asList("0", "17", "0")) {
+            BreadthFirstSearch.Result result = search.search(start);
+            int level = 0;
+            for (int index = 1; index < result.size(); index++) {
+                final int id = result.getId(index);
+                // Levels are appended one after another
+                assertTrue(result.getCost(index) >= level);
+                level = result.getCost(index);
+                assertEquals(result.getCostOf(result.getPredecessor(id)) + 1, result.getCostOf(id));
+            }
+        }
+        assertReflectionEquals(expected, toStrings(search.search("0").asList()), ReflectionComparatorMode.LENIENT_ORDER);
+        assertReflectionEquals(expected, toStrings(GraphSearch.parallelBreadthFirstSearch(graph, "0")),
+                ReflectionComparatorMode.LENIENT_ORDER);
+    }
+
+    @Test
+    public void testSwitchParallelOnGrowingGraph() throws Exception {
+        graph.addNode("0");
+        graph.addNode("1");
+        graph.addEdge("0", "1", 1);
+
+        BreadthFirstSearch search = new BreadthFirstSearch(graph);
+        search.setParallel(true);
+        assertEquals(2, search.search("0").size());
+        for (int i = 2; i < 200; i++) {
+            graph.addNode(Integer.toString(i));
+            graph.addEdge(Integer.toString(i - 1), Integer.toString(i), 1);
+        }
+        search.setParallel(false);
+        assertEquals(200, search.search("0").size());
+        search.setParallel(true);
+        BreadthFirstSearch.Result result = search.search("0");
+        assertEquals(200, result.size());
+        assertEquals(199, result.getCostOf(graph.getNodeId("199")));
+        assertEquals(1, search.search("199").size());
+    }
+
+    private List<String> toStrings(List<SearchResult> results) {
+        return results.stream().map(res -> String.format("%s:%d", res.getNode().getValue(), res.getCost())).collect(Collectors.toList());
+    }
+
     private void readGraph(String name) throws Exception {
         ClassLoader classloader = Thread.currentThread().getContextClassLoader();
         URL path = classloader.getResource(name);
@@ -1,6 +1,7 @@
 package ch.isageek.ads.p5;
 
 import ch.isageek.ads.p5.exception.GraphParseException;
+import ch.isageek.ads.p5.impl.GraphFlatMatrix;
 import ch.isageek.ads.p5.impl.GraphList;
 import ch.isageek.ads.p5.impl.GraphHashmapMatrix;
 import ch.isageek.ads.p5.impl.GraphMatrix;
@@ -16,6 +17,7 @@ import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -25,6 +27,8 @@ import java.util.stream.Collectors;
 import static java.util.Arrays.asList;
 import static junit.framework.TestCase.assertEquals;
 import static junit.framework.TestCase.assertNotNull;
+import static junit.framework.TestCase.assertSame;
+import static org.junit.Assume.assumeTrue;
 import static org.unitils.reflectionassert.ReflectionAssert.assertReflectionEquals;
 
 @RunWith(Parameterized.class)
@@ -43,7 +47,7 @@ public class GraphTest {
 
     @Parameterized.Parameters(name = "{0}")
     public static Collection<Class> getClasses() {
-        return asList(GraphHashmapMatrix.class, GraphList.class, GraphMatrix.class);
+        return asList(GraphHashmapMatrix.class, GraphList.class, GraphMatrix.class, GraphFlatMatrix.class);
     }
 
     @Before
@@ -77,6 +81,92 @@ public class GraphTest {
 
     }
 
+    @Test
+    public void testNodeIds() throws Exception {
+        graph.addNode(A);
+        graph.addNode(B);
+        graph.addNode("c");
+        graph.addEdge(A, B, 2);
+        graph.addEdge(A, "c", 3);
+
+        final int a = graph.getNodeId(A);
+        assertEquals(A, graph.getLabel(a));
+        assertEquals(2, graph.degree(a));
+        assertEquals(0, graph.degree(graph.getNodeId(B)));
+        assertEquals(2, graph.getEdgesFor(a).size());
+        final List<String> neighbors = new ArrayList<>();
+        graph.forEachNeighbor(a, (id, cost) -> neighbors.add(String.format("%s:%d", graph.getLabel(id), cost)));
+        assertReflectionEquals(asList("b:2", "c:3"), neighbors, ReflectionComparatorMode.LENIENT_ORDER);
+
+        // The id of a removed node is reused
+        final int b = graph.getNodeId(B);
+        graph.removeNode(B);
+        graph.addNode("d");
+        assertEquals(b, graph.getNodeId("d"));
+        assertEquals(3, graph.getNodeIdBound());
+        assertEquals(1, graph.degree(a));
+        assertEquals(0, graph.degree(b));
+        assertEquals(3, graph.getNumberOfNodes());
+        assertEquals(1, graph.getNumberOfEdges());
+    }
+
+    @Test
+    public void testNodeHandlesAreCached() throws Exception {
+        Node a = graph.addNode(A);
+        graph.addNode(B);
+        graph.addEdge(A, B, 1);
+        graph.addEdge(B, A, 2);
+
+        assertSame(a, graph.getNode(A));
+        assertSame(a, graph.getEdgesFor(B).get(0).getDestination());
+        assertSame(graph.getNode(B), a.getEdges().get(0).getDestination());
+        // The hash code does not change with the edges
+        final int hash = a.hashCode();
+        graph.removeEdge(A, B);
+        assertEquals(hash, graph.getNode(A).hashCode());
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testRemovedNodeHandle() throws Exception {
+        // Only the matrix graphs read the edges of a handle from the graph
+        assumeTrue(!(graph instanceof GraphList));
+        Node a = graph.addNode(A);
+        graph.addNode(B);
+        graph.addEdge(A, B, 1);
+        graph.removeNode(A);
+        // The index of a is reused by c
+        graph.addNode("c");
+        graph.addEdge("c", B, 2);
+        a.getEdges();
+    }
+
+    @Test
+    public void testManyNodes() throws Exception {
+        for (int i = 0; i < 40; i++) {
+            graph.addNode("n" + i);
+            if (i > 0) {
+                graph.addEdge("n" + (i - 1), "n" + i, i);
+            }
+        }
+        graph.removeNode("n20");
+        graph.addNode("x");
+        graph.addEdge("x", "n0", 7);
+
+        assertEquals(40, graph.getNumberOfNodes());
+        assertEquals(38, graph.getNumberOfEdges());
+        assertEquals(0, graph.getEdgesFor("n19").size());
+        assertEquals(1, graph.getEdgesFor("n21").size());
+        assertEquals("n0", graph.getEdgesFor("x").get(0).getDestination().getValue());
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testRemovedNodeId() throws Exception {
+        graph.addNode(A);
+        final int a = graph.getNodeId(A);
+        graph.removeNode(A);
+        graph.degree(a);
+    }
+
     @Test(expected = NoSuchElementException.class)
     public void testAddEdgeToNonexistingNodeDest() throws Exception {
         graph.addNode(A);
@@ -223,6 +313,28 @@ public class GraphTest {
         assertEquals(107, edges2.get(0).getCost());
     }
 
+    @Test
+    public void testReadCsvWithWindowsLineBreaks() throws Exception {
+        writeToTmpFile("Zürich,Bern,110\r\nBern,Zürich,107\r\nBern, Basel ,95\r\n\r\n");
+        graph.readFromFile(tmpFile);
+
+        assertEquals(3, graph.getNumberOfNodes());
+        assertEquals(3, graph.getNumberOfEdges());
+        assertReflectionEquals(asList("Zürich:107", "Basel:95"), graph.getEdgesFor("Bern").stream()
+                .map(edge -> String.format("%s:%d", edge.getDestination().getValue(), edge.getCost()))
+                .collect(Collectors.toList()), ReflectionComparatorMode.LENIENT_ORDER);
+    }
+
+    @Test
+    public void testReadEdgeListTrailingSeparator() throws Exception {
+        writeToTmpFile("W:2,2,Zürich,Bern,1,Bern,Zürich,2,\n");
+        graph.readFromFile(tmpFile);
+
+        assertEquals(2, graph.getNumberOfNodes());
+        assertEquals(2, graph.getNumberOfEdges());
+        assertEquals(2, graph.getEdgesFor("Bern").get(0).getCost());
+    }
+
     @Test
     public void testReadEdgeListGraphWeightedCSV() throws Exception {
         readGraph("simple_graph_weighted.csv");
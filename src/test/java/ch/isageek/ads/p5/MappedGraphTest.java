@@ -0,0 +1,105 @@
+package ch.isageek.ads.p5;
+
+import ch.isageek.ads.p5.exception.GraphParseException;
+import ch.isageek.ads.p5.impl.GraphList;
+import ch.isageek.ads.p5.impl.GraphMatrix;
+import ch.isageek.ads.p5.impl.MappedGraph;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.unitils.reflectionassert.ReflectionComparatorMode;
+
+import java.io.File;
+import java.net.URL;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+
+import static java.util.Arrays.asList;
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertNotNull;
+import static junit.framework.TestCase.assertTrue;
+import static org.unitils.reflectionassert.ReflectionAssert.assertReflectionEquals;
+
+public class MappedGraphTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testWriteAndMap() throws Exception {
+        Graph graph = new GraphList();
+        graph.addNode("a");
+        graph.addNode("b");
+        graph.addNode("Zürich");
+        graph.addNode("removed");
+        graph.addEdge("a", "b", 2);
+        graph.addEdge("a", "Zürich", 3);
+        graph.addEdge("Zürich", "a", 1);
+        graph.removeNode("removed");
+
+        final File file = folder.newFile();
+        MappedGraph.write(graph, file);
+        assertTrue(MappedGraph.isBinary(file));
+        MappedGraph mapped = MappedGraph.fromFile(file);
+
+        assertEquals(3, mapped.getNumberOfNodes());
+        assertEquals(3, mapped.getNumberOfEdges());
+        assertReflectionEquals(asList("a", "b", "Zürich"), mapped.getNodes().stream().map(Node::getValue).collect(Collectors.toList()),
+                ReflectionComparatorMode.LENIENT_ORDER);
+        assertReflectionEquals(asList("b:2", "Zürich:3"), toStrings(mapped.getEdgesFor("a")), ReflectionComparatorMode.LENIENT_ORDER);
+        assertEquals(0, mapped.getEdgesFor("b").size());
+        assertEquals(mapped.getNode("a"), mapped.getEdgesFor("Zürich").get(0).getDestination());
+        assertEquals("Zürich", mapped.getLabel(mapped.getNodeId("Zürich")));
+        assertEquals(2, mapped.degree(mapped.getNodeId("a")));
+    }
+
+    @Test
+    public void testReadBinaryIntoGraph() throws Exception {
+        final File file = folder.newFile();
+        MappedGraph.write(MappedGraph.fromFile(toBinary("graph_peruseall16.2.txt")), file);
+
+        Graph graph = new GraphMatrix();
+        graph.readFromFile(file);
+
+        assertEquals(6, graph.getNumberOfNodes());
+        assertEquals(11, graph.getNumberOfEdges());
+        List<GraphSearch.SearchResult> results = GraphSearch.breadthFirstSearch(MappedGraph.fromFile(file), "1");
+        List<String> result = results.stream().map(res -> String.format("%s:%d", res.getNode().getValue(), res.getCost())).collect(Collectors.toList());
+        assertReflectionEquals(asList("1:0", "2:1", "3:1", "4:2", "6:2", "5:3"), result, ReflectionComparatorMode.LENIENT_ORDER);
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testUnknownLabel() throws Exception {
+        MappedGraph.fromFile(toBinary("simple_graph.csv")).getNodeId("Basel");
+    }
+
+    @Test(expected = GraphParseException.class)
+    public void testReadTextFile() throws Exception {
+        MappedGraph.fromFile(getFile("simple_graph.csv"));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testAddNode() throws Exception {
+        MappedGraph.fromFile(toBinary("simple_graph.csv")).addNode("Basel");
+    }
+
+    private File toBinary(String name) throws Exception {
+        Graph graph = new GraphList();
+        graph.readFromFile(getFile(name));
+        final File file = folder.newFile();
+        MappedGraph.write(graph, file);
+        return file;
+    }
+
+    private List<String> toStrings(List<Edge> edges) {
+        return edges.stream().map(edge -> String.format("%s:%d", edge.getDestination().getValue(), edge.getCost())).collect(Collectors.toList());
+    }
+
+    private File getFile(String name) throws Exception {
+        ClassLoader classloader = Thread.currentThread().getContextClassLoader();
+        URL path = classloader.getResource(name);
+        assertNotNull(path);
+        return new File(path.toURI());
+    }
+}
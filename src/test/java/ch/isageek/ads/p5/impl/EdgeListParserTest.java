@@ -0,0 +1,107 @@
+package ch.isageek.ads.p5.impl;
+
+import ch.isageek.ads.p5.Graph;
+import ch.isageek.ads.p5.Node;
+import ch.isageek.ads.p5.exception.GraphParseException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+
+public class EdgeListParserTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testParallelEdgelist() throws Exception {
+        final StringBuilder content = new StringBuilder("2000,5000");
+        final Random random = new Random(42);
+        for (int i = 0; i < 5000; i++) {
+            content.append(",Knoten").append(random.nextInt(2000)).append(", Zürich").append(random.nextInt(50));
+        }
+        assertParallelEqualsSequential(content.toString());
+    }
+
+    @Test
+    public void testParallelWeightedCsv() throws Exception {
+        final StringBuilder content = new StringBuilder();
+        final Random random = new Random(7);
+        for (int i = 0; i < 5000; i++) {
+            content.append(random.nextInt(300)).append(',').append(random.nextInt(300)).append(',')
+                    .append(random.nextInt(100) + 1).append(i % 3 == 0 ? "\r\n" : "\n");
+        }
+        assertParallelEqualsSequential(content.toString());
+    }
+
+    @Test
+    public void testParallelLongLabels() throws Exception {
+        final String a = new String(new char[1000]).replace('\0', 'a');
+        final String b = new String(new char[1000]).replace('\0', 'b');
+        final StringBuilder content = new StringBuilder("W:3,3");
+        content.append(",").append(a).append(",").append(b).append(",1");
+        content.append(",").append(b).append(",").append(a).append(",2");
+        content.append(",").append(a).append(",c,3,,,");
+        assertParallelEqualsSequential(content.toString());
+    }
+
+    @Test(expected = GraphParseException.class)
+    public void testParallelUneven() throws Exception {
+        parse(write("W:2,2,a,b,1,b,a,1,c,d"), 4);
+    }
+
+    @Test(expected = GraphParseException.class)
+    public void testParallelInvalidWeight() throws Exception {
+        parse(write("W:2,2,a,b,1,b,a,x"), 3);
+    }
+
+    @Test(expected = GraphParseException.class)
+    public void testParallelInvalidHeader() throws Exception {
+        parse(write("2,x,a,b,b,a"), 3);
+    }
+
+    private void assertParallelEqualsSequential(String content) throws Exception {
+        final File file = write(content);
+        final Graph expected = parse(file, 1);
+        for (int parts = 2; parts < 12; parts++) {
+            final Graph graph = parse(file, parts);
+            // GraphMatrix lists the nodes in the order they were added
+            assertEquals(labels(expected), labels(graph));
+            assertEquals(expected.getNumberOfEdges(), graph.getNumberOfEdges());
+            for (Node node : expected.getNodes()) {
+                assertEquals(edges(expected, node.getValue()), edges(graph, node.getValue()));
+            }
+        }
+    }
+
+    private Graph parse(File file, int parts) throws IOException, GraphParseException {
+        final GraphMatrix graph = new GraphMatrix();
+        new EdgeListParser(graph).parse(file, parts);
+        return graph;
+    }
+
+    private File write(String content) throws IOException {
+        final File file = folder.newFile();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private List<String> labels(Graph graph) {
+        return graph.getNodes().stream().map(Node::getValue).collect(Collectors.toList());
+    }
+
+    private List<String> edges(Graph graph, String label) {
+        return graph.getEdgesFor(label).stream()
+                .map(edge -> String.format("%s:%d", edge.getDestination().getValue(), edge.getCost()))
+                .collect(Collectors.toList());
+    }
+}
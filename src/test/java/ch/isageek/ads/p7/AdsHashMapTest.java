@@ -0,0 +1,111 @@
+package ch.isageek.ads.p7;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.*;
+
+@RunWith(Parameterized.class)
+public class AdsHashMapTest {
+
+    private AdsHashTable.ProbingMode probingMode;
+
+    public AdsHashMapTest(AdsHashTable.ProbingMode probingMode) {
+        this.probingMode = probingMode;
+    }
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<AdsHashTable.ProbingMode> getModes() {
+        return asList(AdsHashTable.ProbingMode.values());
+    }
+
+    @Test
+    public void testPutGetRemove() {
+        AdsHashMap<String, Integer> map = new AdsHashMap<>(1, probingMode);
+        assertTrue(map.isEmpty());
+
+        assertNull(map.put("a", 1));
+        assertEquals(Integer.valueOf(1), map.put("a", 2));
+        assertEquals(Integer.valueOf(2), map.get("a"));
+        assertNull(map.get("b"));
+        assertEquals(1, map.size());
+
+        assertTrue(map.remove("a"));
+        assertFalse(map.containsKey("a"));
+        assertNull(map.get("a"));
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void testComputeIfAbsent() {
+        AdsHashMap<String, String> map = new AdsHashMap<>(probingMode);
+
+        assertEquals("A", map.computeIfAbsent("a", String::toUpperCase));
+        assertEquals("A", map.computeIfAbsent("a", key -> "other"));
+        assertNull(map.computeIfAbsent("b", key -> null));
+        assertFalse(map.containsKey("b"));
+    }
+
+    @Test
+    public void testMerge() {
+        AdsHashMap<String, Integer> map = new AdsHashMap<>(probingMode);
+
+        assertEquals(Integer.valueOf(1), map.merge("a", 1, Integer::sum));
+        assertEquals(Integer.valueOf(3), map.merge("a", 2, Integer::sum));
+        assertNull(map.merge("a", 0, (left, right) -> null));
+        assertFalse(map.containsKey("a"));
+    }
+
+    @Test
+    public void testManyEntries() {
+        AdsHashMap<Integer, String> map = new AdsHashMap<>(1, probingMode);
+        IntStream.range(-2500, 2500).forEach(i -> map.put(i, String.valueOf(i)));
+        IntStream.range(-2500, 0).forEach(map::remove);
+
+        assertEquals(2500, map.size());
+        IntStream.range(0, 2500).forEach(i -> assertEquals(String.valueOf(i), map.get(i)));
+
+        Map<Integer, String> copy = new HashMap<>();
+        map.forEach(copy::put);
+        assertEquals(2500, copy.size());
+        assertEquals(2500, map.keys().count());
+    }
+
+    @Test
+    public void testIntValueCounting() {
+        AdsIntValueHashMap<String> counts = new AdsIntValueHashMap<>(1, probingMode);
+        asList("a", "b", "a", "c", "a", "b").forEach(key -> counts.addTo(key, 1));
+
+        assertEquals(3, counts.get("a"));
+        assertEquals(2, counts.get("b"));
+        assertEquals(1, counts.get("c"));
+        assertEquals(AdsIntValueHashMap.NO_VALUE, counts.get("d"));
+        assertEquals(3, counts.size());
+
+        assertEquals(13, counts.merge("a", 10, Integer::sum));
+        assertEquals(5, counts.computeIfAbsent("e", String::length) + 4);
+        assertEquals(1, counts.put("c", 7));
+
+        assertTrue(counts.remove("a"));
+        assertEquals(AdsIntValueHashMap.NO_VALUE, counts.get("a"));
+        assertEquals(1, counts.addTo("a", 1));
+    }
+
+    @Test
+    public void testLongValueManyEntries() {
+        AdsLongValueHashMap<Integer> map = new AdsLongValueHashMap<>(1, probingMode);
+        IntStream.range(0, 5000).forEach(i -> map.put(i, (long) i << 32));
+
+        assertEquals(5000, map.size());
+        assertEquals(5000, map.keys().collect(Collectors.toSet()).size());
+        IntStream.range(0, 5000).forEach(i -> assertEquals((long) i << 32, map.get(i)));
+    }
+}
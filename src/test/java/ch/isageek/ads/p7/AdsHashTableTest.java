@@ -5,6 +5,7 @@ import org.junit.Ignore;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
+import org.unitils.reflectionassert.ReflectionComparatorMode;
 
 import java.lang.reflect.Field;
 import java.util.*;
@@ -26,7 +27,7 @@ public class AdsHashTableTest {
 
     @Parameterized.Parameters(name = "{0}")
     public static Collection<AdsHashTable.ProbingMode> getModes() {
-        return asList(AdsHashTable.ProbingMode.LINEAR, AdsHashTable.ProbingMode.QUADRATIC);
+        return asList(AdsHashTable.ProbingMode.values());
     }
 
     @Test
@@ -131,7 +132,13 @@ public class AdsHashTableTest {
         assertTrue(hashTable.contains(c));
         assertEquals(3, hashTable.size());
 
-        assertReflectionEquals(asList(a, b, c), hashTable.stream().filter(Objects::nonNull).collect(Collectors.toList()));
+        final List<CustomHashCode> elements = hashTable.stream().filter(Objects::nonNull).collect(Collectors.toList());
+        if (probingMode == AdsHashTable.ProbingMode.LINEAR_SPREAD) {
+            // The mixed hashcodes do not keep the order of the buckets
+            assertReflectionEquals(asList(a, b, c), elements, ReflectionComparatorMode.LENIENT_ORDER);
+        } else {
+            assertReflectionEquals(asList(a, b, c), elements);
+        }
     }
 
     @Test
@@ -156,6 +163,13 @@ public class AdsHashTableTest {
         final List<CustomHashCode> elements = asList(a, b, c);
         Iterator<CustomHashCode> it = hashTable.iterator();
         assertNotNull(it);
+        if (probingMode == AdsHashTable.ProbingMode.LINEAR_SPREAD) {
+            // The mixed hashcodes do not keep the order of the buckets
+            final List<CustomHashCode> actual = new ArrayList<>();
+            it.forEachRemaining(actual::add);
+            assertReflectionEquals(elements, actual.stream().filter(Objects::nonNull).collect(Collectors.toList()), ReflectionComparatorMode.LENIENT_ORDER);
+            return;
+        }
         int count = 0;
         while (it.hasNext()) {
             CustomHashCode next = it.next();
@@ -297,6 +311,139 @@ public class AdsHashTableTest {
         assertEquals(200, hashTable.size());
     }
 
+    @Test
+    public void testNegativeHashCode() {
+        HashTable<CustomHashCode> hashTable = new AdsHashTable<>(10, probingMode);
+        final List<CustomHashCode> elements = generateObjects(3, -1, -11, Integer.MIN_VALUE);
+
+        hashTable.addAll(elements);
+
+        elements.forEach(element -> assertTrue(hashTable.contains(element)));
+        assertTrue(hashTable.remove(elements.get(2)));
+        assertFalse(hashTable.contains(elements.get(2)));
+    }
+
+    @Test
+    public void testIncrementalResize() throws Exception {
+        AdsHashTable<CustomHashCode> hashTable = new AdsHashTable<>(10, probingMode);
+        hashTable.setIncrementalResize(true);
+        final List<CustomHashCode> elements = generateObjects(5000);
+
+        for (int i = 0; i < elements.size(); i++) {
+            hashTable.add(elements.get(i));
+            assertEquals(i + 1, hashTable.size());
+            assertTrue(hashTable.contains(elements.get(i / 2)));
+        }
+        elements.forEach(element -> assertTrue(hashTable.contains(element)));
+        assertEquals(5000, hashTable.stream().filter(Objects::nonNull).count());
+    }
+
+    @Test
+    public void testIncrementalResizeKeepsOldTable() throws Exception {
+        AdsHashTable<CustomHashCode> hashTable = new AdsHashTable<>(100, probingMode);
+        hashTable.setIncrementalResize(true);
+        final List<CustomHashCode> elements = generateObjects(200);
+
+        Field oldTable = AdsHashTable.class.getDeclaredField("oldTable");
+        oldTable.setAccessible(true);
+        int index = 0;
+        while (oldTable.get(hashTable) == null) {
+            hashTable.add(elements.get(index++));
+        }
+
+        // Elements are found and removed in both tables while resizing
+        assertTrue(hashTable.remove(elements.get(0)));
+        assertTrue(hashTable.remove(elements.get(index - 1)));
+        assertFalse(hashTable.contains(elements.get(0)));
+        assertFalse(hashTable.contains(elements.get(index - 1)));
+        assertEquals(index - 2, hashTable.size());
+
+        hashTable.setIncrementalResize(false);
+        assertNull(oldTable.get(hashTable));
+        elements.subList(1, index - 1).forEach(element -> assertTrue(hashTable.contains(element)));
+    }
+
+    @Test
+    public void testStatistics() {
+        AdsHashTable<CustomHashCode> hashTable = new AdsHashTable<>(10, probingMode);
+        hashTable.setLoadFactorForResize(1);
+        // Three elements in the same bucket need 0, 1 and 2 additional probes
+        final List<CustomHashCode> elements = generateObjects(3, 0, 0, 0);
+
+        hashTable.addAll(elements);
+        hashTable.remove(elements.get(1));
+        hashTable.contains(elements.get(2));
+
+        HashTableStatistics statistics = hashTable.getStatistics();
+        assertArrayEquals(new long[]{1, 1, 1}, Arrays.copyOf(statistics.getInsertProbeHistogram(), 3));
+        assertEquals(3, statistics.getInserts());
+        assertEquals(2, statistics.getLookups());
+        assertEquals(1, statistics.getRemovedBuckets());
+        assertEquals(1 / (double) statistics.getCapacity(), statistics.getTombstoneRatio(), 0.0001);
+        assertEquals(0, statistics.getResizeCount());
+        if (probingMode == AdsHashTable.ProbingMode.LINEAR) {
+            assertEquals(3, statistics.getMaxClusterLength());
+        }
+
+        generateObjects(20).forEach(hashTable::add);
+        assertTrue(hashTable.getStatistics().getResizeCount() > 0);
+        hashTable.resetStatistics();
+        assertEquals(0, hashTable.getStatistics().getInserts());
+    }
+
+    @Test
+    public void testAddAllResizesOnce() {
+        AdsHashTable<CustomHashCode> hashTable = new AdsHashTable<>(1, probingMode);
+        final List<CustomHashCode> elements = generateObjects(5000);
+
+        hashTable.addAll(elements);
+
+        assertEquals(1, hashTable.getStatistics().getResizeCount());
+        assertEquals(5000, hashTable.size());
+        elements.forEach(element -> assertTrue(hashTable.contains(element)));
+    }
+
+    @Test
+    public void testAddAllParallel() {
+        AdsHashTable<Integer> hashTable = new AdsHashTable<>(1, probingMode);
+        hashTable.add(-1);
+        final List<Integer> elements = IntStream.range(0, 200_000).map(i -> (i * 0x9E3779B1) >>> 1).boxed().collect(Collectors.toList());
+
+        hashTable.addAll(elements);
+
+        assertEquals(200_001, hashTable.size());
+        assertEquals(200_001, hashTable.stream().filter(Objects::nonNull).count());
+        assertTrue(hashTable.contains(-1));
+        elements.forEach(element -> assertTrue(hashTable.contains(element)));
+    }
+
+    @Test
+    public void testSpliterator() {
+        AdsHashTable<Integer> hashTable = new AdsHashTable<>(1, probingMode);
+        IntStream.range(0, 10_000).forEach(hashTable::add);
+        IntStream.range(0, 10_000).filter(i -> i % 3 != 0).forEach(hashTable::remove);
+
+        Spliterator<Integer> spliterator = hashTable.spliterator();
+        assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED));
+        assertEquals(3334, spliterator.estimateSize());
+        Spliterator<Integer> suffix = spliterator.trySplit();
+        assertNotNull(suffix);
+        assertEquals(3334, spliterator.estimateSize() + suffix.estimateSize());
+
+        assertEquals(3334, hashTable.elements().count());
+        assertEquals(IntStream.range(0, 10_000).filter(i -> i % 3 == 0).sum(), hashTable.elements().parallel().mapToInt(Integer::intValue).sum());
+        assertEquals(3334, hashTable.elements().parallel().toArray().length);
+    }
+
+    @Test
+    public void testSpliteratorWhileResizingIncrementally() {
+        AdsHashTable<Integer> hashTable = new AdsHashTable<>(100, probingMode);
+        hashTable.setIncrementalResize(true);
+        IntStream.range(0, 90).forEach(hashTable::add);
+
+        assertEquals(90, hashTable.elements().parallel().distinct().count());
+    }
+
     private List<CustomHashCode> generateObjects(int amount, int... hashcodes) {
         int defaultHashcode = hashcodes.length > 0 ? hashcodes[0] : amount;
         return IntStream.range(0, amount)
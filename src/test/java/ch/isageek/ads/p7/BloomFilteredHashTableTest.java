@@ -0,0 +1,61 @@
+package ch.isageek.ads.p7;
+
+import org.junit.Test;
+
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+
+public class BloomFilteredHashTableTest {
+
+    private static final int SCRAMBLE = 0x9E3779B1;
+
+    @Test
+    public void testBloomFilterHasNoFalseNegatives() {
+        BloomFilter<Integer> filter = new BloomFilter<>(10_000, 0.01);
+        IntStream.range(0, 10_000).forEach(filter::add);
+
+        IntStream.range(0, 10_000).forEach(i -> assertTrue(filter.mightContain(i)));
+        long falsePositives = IntStream.range(10_000, 110_000).filter(filter::mightContain).count();
+        // Blocking costs some accuracy, but it has to stay close to the desired rate
+        assertTrue("False positives: " + falsePositives, falsePositives < 2_000);
+    }
+
+    @Test
+    public void testAddContainsRemove() {
+        BloomFilteredHashTable<Integer> hashTable = new BloomFilteredHashTable<>(new AdsHashTable<>(), 16, 0.01);
+        IntStream.range(0, 1000).forEach(hashTable::add);
+        IntStream.range(0, 1000).filter(i -> i % 2 == 0).forEach(hashTable::remove);
+
+        assertEquals(500, hashTable.size());
+        IntStream.range(0, 1000).forEach(i -> assertEquals(i % 2 != 0, hashTable.contains(i)));
+        // The filter was built for 16 elements and grew with the table
+        assertTrue(hashTable.getRebuilds() > 1);
+    }
+
+    @Test
+    public void testStatistics() {
+        BloomFilteredHashTable<Integer> hashTable = new BloomFilteredHashTable<>(new AdsHashTable<>(), 10_000, 0.01);
+        IntStream.range(0, 10_000).map(i -> i * SCRAMBLE).forEach(hashTable::add);
+        hashTable.resetStatistics();
+
+        IntStream.range(0, 100_000).map(i -> (i + 10_000) * SCRAMBLE).forEach(hashTable::contains);
+
+        assertEquals(100_000, hashTable.getLookups());
+        assertEquals(100_000, hashTable.getFilteredLookups() + hashTable.getFalsePositives());
+        assertTrue(hashTable.getFalsePositiveRate() < 0.02);
+        assertTrue(hashTable.getFilterHitRatio() > 0.98);
+    }
+
+    @Test
+    public void testRebuildAfterRemovals() {
+        BloomFilteredHashTable<Integer> hashTable = new BloomFilteredHashTable<>(new AdsHashTable<>(), 100, 0.01);
+        IntStream.range(0, 100).forEach(hashTable::add);
+        IntStream.range(0, 60).forEach(hashTable::remove);
+        hashTable.resetStatistics();
+
+        IntStream.range(0, 60).forEach(i -> assertFalse(hashTable.contains(i)));
+        // The removed elements are gone from the rebuilt filter
+        assertTrue(hashTable.getFilteredLookups() > 50);
+    }
+}
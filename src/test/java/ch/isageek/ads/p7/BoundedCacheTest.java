@@ -0,0 +1,66 @@
+package ch.isageek.ads.p7;
+
+import org.junit.Test;
+
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+
+public class BoundedCacheTest {
+
+    @Test
+    public void testPutGet() {
+        BoundedCache<String, Integer> cache = new BoundedCache<>(10);
+        cache.put("a", 1);
+        cache.put("a", 2);
+
+        assertEquals(Integer.valueOf(2), cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals(1, cache.size());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+
+        assertTrue(cache.invalidate("a"));
+        assertFalse(cache.containsKey("a"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testMaximumSize() {
+        BoundedCache<Integer, Integer> cache = new BoundedCache<>(100);
+        IntStream.range(0, 10_000).forEach(i -> {
+            cache.put(i, i);
+            assertTrue(cache.size() <= 100);
+        });
+        assertEquals(100, cache.size());
+        assertEquals(9_900, cache.getEvictions());
+    }
+
+    @Test
+    public void testSingleEntry() {
+        BoundedCache<Integer, Integer> cache = new BoundedCache<>(1);
+        cache.put(1, 1);
+        cache.put(2, 2);
+
+        assertEquals(1, cache.size());
+        assertEquals(Integer.valueOf(2), cache.get(2));
+    }
+
+    @Test
+    public void testFrequentEntriesSurviveScan() {
+        BoundedCache<Integer, Integer> cache = new BoundedCache<>(100);
+        for (int round = 0; round < 5; round++) {
+            IntStream.range(0, 50).forEach(i -> cache.computeIfAbsent(i, key -> key));
+        }
+        // A scan of keys requested only once must not push out the popular ones
+        IntStream.range(1000, 11_000).forEach(i -> cache.computeIfAbsent(i, key -> key));
+
+        long cached = IntStream.range(0, 50).filter(cache::containsKey).count();
+        assertTrue("Popular entries left: " + cached, cached >= 45);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidSize() {
+        new BoundedCache<Integer, Integer>(0);
+    }
+}
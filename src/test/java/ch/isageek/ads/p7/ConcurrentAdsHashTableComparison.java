@@ -0,0 +1,68 @@
+package ch.isageek.ads.p7;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+public class ConcurrentAdsHashTableComparison {
+
+    private static final int NUMBER_OF_ELEMENTS = 1_000_000;
+    private static final int REPEATS = 3;
+    private static final int SCRAMBLE = 0x9E3779B1;
+
+    @Test
+    public void compareThreadScaling() throws Exception {
+        final int maxThreads = Runtime.getRuntime().availableProcessors();
+        System.out.println(String.format("Adding %d elements and looking each up twice, split over 1 to %d threads", NUMBER_OF_ELEMENTS, maxThreads));
+        System.out.println("Threads\tConcurrentAdsHashTable(ms)\tsynchronized AdsHashTable(ms)");
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            long concurrent = runWorkload(threads, ConcurrentAdsHashTable::new, false);
+            long synchronizedTable = runWorkload(threads, AdsHashTable::new, true);
+            System.out.println(String.format("%d\t%d\t%d", threads, concurrent, synchronizedTable));
+        }
+    }
+
+    private long runWorkload(int threads, Supplier<HashTable<Integer>> tableSupplier, boolean lock) throws Exception {
+        long best = Long.MAX_VALUE;
+        for (int repeat = 0; repeat < REPEATS; repeat++) {
+            HashTable<Integer> hashTable = tableSupplier.get();
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            List<Future<?>> futures = new ArrayList<>(threads);
+            final int perThread = NUMBER_OF_ELEMENTS / threads;
+
+            long start = System.currentTimeMillis();
+            for (int thread = 0; thread < threads; thread++) {
+                final int offset = thread * perThread;
+                futures.add(executor.submit(() -> {
+                    for (int i = offset; i < offset + perThread; i++) {
+                        // Scramble the keys, consecutive integers form one big cluster
+                        final int key = (i * SCRAMBLE) >>> 1;
+                        final int missing = ((i + NUMBER_OF_ELEMENTS) * SCRAMBLE) >>> 1;
+                        if (lock) {
+                            synchronized (hashTable) {
+                                hashTable.add(key);
+                                hashTable.contains(key);
+                                hashTable.contains(missing);
+                            }
+                        } else {
+                            hashTable.add(key);
+                            hashTable.contains(key);
+                            hashTable.contains(missing);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            best = Math.min(best, System.currentTimeMillis() - start);
+            executor.shutdown();
+        }
+        return best;
+    }
+}
@@ -0,0 +1,106 @@
+package ch.isageek.ads.p7;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.*;
+
+@RunWith(Parameterized.class)
+public class ConcurrentAdsHashTableTest {
+
+    private static final int THREADS = 8;
+
+    private AdsHashTable.ProbingMode probingMode;
+
+    public ConcurrentAdsHashTableTest(AdsHashTable.ProbingMode probingMode) {
+        this.probingMode = probingMode;
+    }
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<AdsHashTable.ProbingMode> getModes() {
+        return asList(AdsHashTable.ProbingMode.values());
+    }
+
+    @Test
+    public void testAddContainsRemove() {
+        HashTable<Integer> hashTable = new ConcurrentAdsHashTable<>(1, probingMode);
+        assertTrue(hashTable.isEmpty());
+
+        hashTable.add(-3);
+        hashTable.add(-3);
+        assertTrue(hashTable.contains(-3));
+        assertFalse(hashTable.contains(3));
+        assertEquals(1, hashTable.size());
+
+        assertTrue(hashTable.remove(-3));
+        assertFalse(hashTable.remove(-3));
+        assertFalse(hashTable.contains(-3));
+        assertTrue(hashTable.isEmpty());
+    }
+
+    @Test
+    public void testAddManyElements() {
+        HashTable<Integer> hashTable = new ConcurrentAdsHashTable<>(1, probingMode);
+        IntStream.range(0, 5000).forEach(hashTable::add);
+        IntStream.range(0, 5000).filter(i -> i % 2 == 0).forEach(hashTable::remove);
+
+        assertEquals(2500, hashTable.size());
+        assertEquals(2500, hashTable.stream().filter(Objects::nonNull).count());
+        IntStream.range(0, 5000).forEach(i -> assertEquals(i % 2 != 0, hashTable.contains(i)));
+    }
+
+    @Test
+    public void testConcurrentAddOverlapping() throws Exception {
+        HashTable<Integer> hashTable = new ConcurrentAdsHashTable<>(1, probingMode);
+        // Every thread adds the same elements, each must only be added once
+        runConcurrently(thread -> IntStream.range(0, 20_000).forEach(hashTable::add));
+
+        assertEquals(20_000, hashTable.size());
+        assertEquals(20_000, hashTable.stream().filter(Objects::nonNull).count());
+        IntStream.range(0, 20_000).forEach(i -> assertTrue(hashTable.contains(i)));
+    }
+
+    @Test
+    public void testConcurrentAddRemove() throws Exception {
+        HashTable<Integer> hashTable = new ConcurrentAdsHashTable<>(1, probingMode);
+        runConcurrently(thread -> IntStream.range(thread * 10_000, (thread + 1) * 10_000).forEach(i -> {
+            hashTable.add(i);
+            assertTrue(hashTable.contains(i));
+            if (i % 2 == 0) {
+                assertTrue(hashTable.remove(i));
+            }
+        }));
+
+        assertEquals(THREADS * 5_000, hashTable.size());
+        IntStream.range(0, THREADS * 10_000).forEach(i -> assertEquals(i % 2 != 0, hashTable.contains(i)));
+    }
+
+    private void runConcurrently(ThreadTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>(THREADS);
+        for (int i = 0; i < THREADS; i++) {
+            final int thread = i;
+            futures.add(executor.submit(() -> task.run(thread)));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+    }
+
+    @FunctionalInterface
+    private interface ThreadTask {
+        void run(int thread);
+    }
+}
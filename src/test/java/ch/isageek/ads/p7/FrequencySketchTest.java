@@ -0,0 +1,18 @@
+package ch.isageek.ads.p7;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class FrequencySketchTest {
+
+    @Test
+    public void testSharedCounter() {
+        final FrequencySketch sketch = new FrequencySketch(16);
+        // The hashcode 0 maps to the same counter at every depth
+        for (int i = 0; i < 20; i++) {
+            sketch.increment(0);
+            assertEquals(Math.min(i + 1, 15), sketch.frequency(0));
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package ch.isageek.ads.p7;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+@RunWith(Parameterized.class)
+public class HashTableSnapshotTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private AdsHashTable.ProbingMode probingMode;
+
+    public HashTableSnapshotTest(AdsHashTable.ProbingMode probingMode) {
+        this.probingMode = probingMode;
+    }
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<AdsHashTable.ProbingMode> getModes() {
+        return asList(AdsHashTable.ProbingMode.values());
+    }
+
+    @Test
+    public void testWriteRead() throws IOException {
+        AdsHashTable<Integer> hashTable = new AdsHashTable<>(1, probingMode);
+        hashTable.setLoadFactorForResize(0.5f);
+        IntStream.range(-5000, 5000).forEach(hashTable::add);
+        IntStream.range(-5000, 5000).filter(i -> i % 2 == 0).forEach(hashTable::remove);
+        final File file = folder.newFile();
+
+        HashTableSnapshot.write(hashTable, ElementCodec.INTEGER, file);
+        AdsHashTable<Integer> restored = HashTableSnapshot.read(ElementCodec.INTEGER, file);
+
+        assertEquals(5000, restored.size());
+        assertEquals(hashTable.stream().collect(Collectors.toList()), restored.stream().collect(Collectors.toList()));
+        assertEquals(hashTable.getStatistics().getRemovedBuckets(), restored.getStatistics().getRemovedBuckets());
+        assertEquals(0.5f, restored.getLoadFactorForResize(), 0);
+        IntStream.range(-5000, 5000).forEach(i -> assertEquals(i % 2 != 0, restored.contains(i)));
+    }
+
+    @Test
+    public void testWriteReadStrings() throws IOException {
+        AdsHashTable<String> hashTable = new AdsHashTable<>(probingMode);
+        hashTable.setIncrementalResize(true);
+        IntStream.range(0, 1000).mapToObj(i -> "Zürich " + i).forEach(hashTable::add);
+        final File file = folder.newFile();
+
+        HashTableSnapshot.write(hashTable, ElementCodec.STRING, file);
+        AdsHashTable<String> restored = HashTableSnapshot.read(ElementCodec.STRING, file);
+
+        assertEquals(1000, restored.size());
+        assertTrue(restored.isIncrementalResize());
+        IntStream.range(0, 1000).forEach(i -> assertTrue(restored.contains("Zürich " + i)));
+        restored.add("Bern");
+        assertTrue(restored.contains("Bern"));
+    }
+
+    @Test
+    public void testReadOtherCapacity() throws IOException {
+        // Only LINEAR creates a table with 1000 buckets
+        assumeTrue(probingMode != AdsHashTable.ProbingMode.LINEAR);
+        AdsHashTable<Integer> hashTable = new AdsHashTable<>(1000, AdsHashTable.ProbingMode.LINEAR);
+        IntStream.range(0, 500).forEach(hashTable::add);
+        final File file = folder.newFile();
+        HashTableSnapshot.write(hashTable, ElementCodec.INTEGER, file);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+            channel.write((ByteBuffer) ByteBuffer.allocate(Integer.BYTES).putInt(probingMode.ordinal()).flip(), 2 * Integer.BYTES);
+        }
+
+        AdsHashTable<Integer> restored = HashTableSnapshot.read(ElementCodec.INTEGER, file);
+
+        assertEquals(probingMode, restored.getProbingMode());
+        assertEquals(500, restored.size());
+        assertEquals(0, restored.getStatistics().getResizeCount());
+        IntStream.range(0, 500).forEach(i -> assertTrue(restored.contains(i)));
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadInvalidFile() throws IOException {
+        HashTableSnapshot.read(ElementCodec.LONG, folder.newFile());
+    }
+}
@@ -0,0 +1,67 @@
+package ch.isageek.ads.p7;
+
+import org.junit.Test;
+
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+
+public class HyperLogLogTest {
+
+    @Test
+    public void testSmallCardinalityIsSparse() {
+        HyperLogLog sketch = new HyperLogLog();
+        IntStream.range(0, 100).forEach(i -> {
+            sketch.add(i);
+            sketch.add(i);
+        });
+
+        assertTrue(sketch.isSparse());
+        assertEquals(100, sketch.cardinality(), 2);
+    }
+
+    @Test
+    public void testLargeCardinality() {
+        HyperLogLog sketch = new HyperLogLog();
+        IntStream.range(0, 1_000_000).forEach(i -> sketch.add("element" + i));
+
+        assertFalse(sketch.isSparse());
+        assertEquals(1_000_000, sketch.cardinality(), 1_000_000 * 3 * sketch.getStandardError());
+    }
+
+    @Test
+    public void testMerge() {
+        HyperLogLog first = new HyperLogLog(12);
+        HyperLogLog second = new HyperLogLog(12);
+        HyperLogLog sparse = new HyperLogLog(12);
+        IntStream.range(0, 60_000).forEach(first::add);
+        IntStream.range(40_000, 100_000).forEach(second::add);
+        IntStream.range(0, 10).forEach(sparse::add);
+
+        first.merge(second);
+        first.merge(sparse);
+        assertEquals(100_000, first.cardinality(), 100_000 * 3 * first.getStandardError());
+
+        sparse.merge(new HyperLogLog(12));
+        assertTrue(sparse.isSparse());
+        assertEquals(10, sparse.cardinality());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMergeDifferentPrecision() {
+        new HyperLogLog(10).merge(new HyperLogLog(11));
+    }
+
+    @Test
+    public void testHashTableDecorator() {
+        HashTable<Integer> table = new AdsHashTable<>();
+        table.add(-1);
+        HyperLogLogHashTable<Integer> hashTable = new HyperLogLogHashTable<>(table);
+        IntStream.range(0, 1000).forEach(hashTable::add);
+        hashTable.remove(5);
+
+        assertEquals(1000, hashTable.size());
+        assertTrue(hashTable.contains(-1));
+        assertEquals(1001, hashTable.cardinality(), 1001 * 3 * hashTable.getSketch().getStandardError());
+    }
+}
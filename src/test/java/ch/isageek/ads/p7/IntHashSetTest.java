@@ -0,0 +1,99 @@
+package ch.isageek.ads.p7;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Collection;
+import java.util.stream.IntStream;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.*;
+
+@RunWith(Parameterized.class)
+public class IntHashSetTest {
+
+    private AdsHashTable.ProbingMode probingMode;
+
+    public IntHashSetTest(AdsHashTable.ProbingMode probingMode) {
+        this.probingMode = probingMode;
+    }
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<AdsHashTable.ProbingMode> getModes() {
+        return asList(AdsHashTable.ProbingMode.values());
+    }
+
+    @Test
+    public void testAddContainsRemove() {
+        IntHashSet set = new IntHashSet(1, probingMode);
+        assertTrue(set.isEmpty());
+
+        set.add(42);
+        assertTrue(set.contains(42));
+        assertFalse(set.contains(43));
+        assertEquals(1, set.size());
+
+        assertTrue(set.remove(42));
+        assertFalse(set.remove(42));
+        assertFalse(set.contains(42));
+        assertTrue(set.isEmpty());
+    }
+
+    @Test
+    public void testAddDuplicate() {
+        IntHashSet set = new IntHashSet(probingMode);
+        set.addAll(7, 7, 7);
+
+        assertEquals(1, set.size());
+        assertArrayEquals(new int[]{7}, set.stream().toArray());
+    }
+
+    @Test
+    public void testReservedKeys() {
+        IntHashSet set = new IntHashSet(probingMode);
+        set.addAll(IntHashSet.FREE, IntHashSet.REMOVED, -5);
+
+        assertEquals(3, set.size());
+        assertTrue(set.contains(IntHashSet.FREE));
+        assertTrue(set.contains(IntHashSet.REMOVED));
+        assertTrue(set.contains(-5));
+
+        assertTrue(set.remove(IntHashSet.FREE));
+        assertFalse(set.contains(IntHashSet.FREE));
+        assertEquals(2, set.size());
+    }
+
+    @Test
+    public void testRemoveWithSameIndex() {
+        IntHashSet set = new IntHashSet(10, probingMode);
+        set.setLoadFactorForResize(1);
+        set.addAll(11, 22, 33);
+
+        set.remove(22);
+
+        assertTrue(set.contains(11));
+        assertFalse(set.contains(22));
+        assertTrue(set.contains(33));
+    }
+
+    @Test
+    public void testAddManyElements() {
+        IntHashSet set = new IntHashSet(1, probingMode);
+        set.addAll(IntStream.range(-2500, 2500).toArray());
+
+        assertEquals(5000, set.size());
+        IntStream.range(-2500, 2500).forEach(i -> assertTrue(set.contains(i)));
+        assertFalse(set.contains(2500));
+    }
+
+    @Test
+    public void testAddRemoveManyTimes() {
+        IntHashSet set = new IntHashSet(10, probingMode);
+        for (int i = 1; i < 10_000; i++) {
+            set.add(i);
+            assertTrue(set.remove(i));
+        }
+        assertTrue(set.isEmpty());
+    }
+}
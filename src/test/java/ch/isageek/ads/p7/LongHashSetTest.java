@@ -0,0 +1,57 @@
+package ch.isageek.ads.p7;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Collection;
+import java.util.stream.LongStream;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.*;
+
+@RunWith(Parameterized.class)
+public class LongHashSetTest {
+
+    private AdsHashTable.ProbingMode probingMode;
+
+    public LongHashSetTest(AdsHashTable.ProbingMode probingMode) {
+        this.probingMode = probingMode;
+    }
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<AdsHashTable.ProbingMode> getModes() {
+        return asList(AdsHashTable.ProbingMode.values());
+    }
+
+    @Test
+    public void testAddContainsRemove() {
+        LongHashSet set = new LongHashSet(1, probingMode);
+        set.add(1L << 40);
+
+        assertTrue(set.contains(1L << 40));
+        assertFalse(set.contains(1L << 41));
+        assertEquals(1, set.size());
+
+        assertTrue(set.remove(1L << 40));
+        assertTrue(set.isEmpty());
+    }
+
+    @Test
+    public void testReservedKeys() {
+        LongHashSet set = new LongHashSet(probingMode);
+        set.addAll(LongHashSet.FREE, LongHashSet.REMOVED, Long.MAX_VALUE);
+
+        assertEquals(3, set.size());
+        assertArrayEquals(new long[]{LongHashSet.FREE, LongHashSet.REMOVED, Long.MAX_VALUE}, set.stream().toArray());
+    }
+
+    @Test
+    public void testAddManyElements() {
+        LongHashSet set = new LongHashSet(1, probingMode);
+        set.addAll(LongStream.range(0, 5000).map(i -> i * Integer.MAX_VALUE).toArray());
+
+        assertEquals(5000, set.size());
+        LongStream.range(0, 5000).forEach(i -> assertTrue(set.contains(i * Integer.MAX_VALUE)));
+    }
+}
@@ -0,0 +1,87 @@
+package ch.isageek.ads.p7;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.stream.LongStream;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.*;
+
+@RunWith(Parameterized.class)
+public class MappedLongHashTableTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private AdsHashTable.ProbingMode probingMode;
+
+    public MappedLongHashTableTest(AdsHashTable.ProbingMode probingMode) {
+        this.probingMode = probingMode;
+    }
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<AdsHashTable.ProbingMode> getModes() {
+        return asList(AdsHashTable.ProbingMode.values());
+    }
+
+    @Test
+    public void testAddContainsRemove() throws IOException {
+        try (MappedLongHashTable table = new MappedLongHashTable(folder.newFile(), 1, probingMode)) {
+            assertTrue(table.isEmpty());
+            table.add(1L << 40);
+            table.add(1L << 40);
+
+            assertTrue(table.contains(1L << 40));
+            assertFalse(table.contains(1L << 41));
+            assertEquals(1, table.size());
+
+            assertTrue(table.remove(1L << 40));
+            assertFalse(table.remove(1L << 40));
+            assertTrue(table.isEmpty());
+        }
+    }
+
+    @Test
+    public void testReopen() throws IOException {
+        final File file = folder.newFile();
+        try (MappedLongHashTable table = new MappedLongHashTable(file, 1, probingMode)) {
+            LongStream.range(0, 5000).forEach(i -> table.add(i * Integer.MAX_VALUE));
+            LongStream.range(0, 5000).filter(i -> i % 2 == 0).forEach(i -> table.remove(i * Integer.MAX_VALUE));
+            table.add(MappedLongHashTable.REMOVED);
+        }
+        try (MappedLongHashTable table = new MappedLongHashTable(file)) {
+            assertEquals(2501, table.size());
+            assertEquals(2501, table.stream().filter(Objects::nonNull).count());
+            assertTrue(table.contains(MappedLongHashTable.REMOVED));
+            LongStream.range(1, 5000).forEach(i -> assertEquals(i % 2 != 0, table.contains(i * Integer.MAX_VALUE)));
+        }
+    }
+
+    @Test
+    public void testGrownCapacity() {
+        assertEquals(probingMode.tableSize(2 * probingMode.tableSize(1000)), probingMode.tableSize(MappedLongHashTable.grownCapacity(probingMode.tableSize(1000), probingMode)));
+        // Doubling may overflow an int here, the table still grows up to the largest size
+        final int large = probingMode.tableSize(probingMode.maxSize() / 2);
+        final int grown = MappedLongHashTable.grownCapacity(large, probingMode);
+        assertTrue(grown > 0 && grown <= probingMode.maxSize());
+        assertTrue(probingMode.tableSize(grown) > large);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testGrowLargestTable() {
+        MappedLongHashTable.grownCapacity(probingMode.tableSize(probingMode.maxSize()), probingMode);
+    }
+
+    @Test(expected = IOException.class)
+    public void testOpenInvalidFile() throws IOException {
+        new MappedLongHashTable(folder.newFile());
+    }
+}
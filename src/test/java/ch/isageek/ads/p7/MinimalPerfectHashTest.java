@@ -0,0 +1,73 @@
+package ch.isageek.ads.p7;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.*;
+
+public class MinimalPerfectHashTest {
+
+    @Test
+    public void testDistinctIndices() {
+        List<String> keys = IntStream.range(0, 100_000).mapToObj(i -> "key" + i).collect(Collectors.toList());
+        MinimalPerfectHash<String> hash = MinimalPerfectHash.<String>builder().build(keys);
+
+        assertEquals(100_000, hash.size());
+        assertIndicesArePermutation(hash, keys);
+        assertTrue("Bits per key: " + hash.bitSize() / 100_000.0, hash.bitSize() < 4 * 100_000);
+    }
+
+    @Test
+    public void testBuildFromHashTable() {
+        HashTable<Integer> table = new AdsHashTable<>();
+        IntStream.range(-1000, 1000).forEach(table::add);
+        MinimalPerfectHash<Integer> hash = MinimalPerfectHash.<Integer>builder().gamma(2).build(table);
+
+        assertEquals(2000, hash.size());
+        assertIndicesArePermutation(hash, IntStream.range(-1000, 1000).boxed().collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testEmpty() {
+        MinimalPerfectHash<String> hash = MinimalPerfectHash.<String>builder().build(asList());
+
+        assertEquals(0, hash.size());
+        assertEquals(-1, hash.indexOf("missing"));
+    }
+
+    @Test
+    public void testWriteRead() throws Exception {
+        List<String> keys = asList("Zürich", "Bern", "Genf", "Basel", "Winterthur", "Luzern");
+        MinimalPerfectHash<String> hash = MinimalPerfectHash.<String>builder().build(keys);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        hash.writeTo(new DataOutputStream(bytes));
+        MinimalPerfectHash<String> read = MinimalPerfectHash.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(hash.size(), read.size());
+        keys.forEach(key -> assertEquals(hash.indexOf(key), read.indexOf(key)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDuplicateHash() {
+        MinimalPerfectHash.<String>builder().hashFunction(String::length).build(asList("ab", "cd"));
+    }
+
+    private <T> void assertIndicesArePermutation(MinimalPerfectHash<T> hash, List<T> keys) {
+        boolean[] used = new boolean[keys.size()];
+        for (T key : keys) {
+            int index = hash.indexOf(key);
+            assertTrue(index >= 0 && index < keys.size());
+            assertFalse("Index used twice: " + index, used[index]);
+            used[index] = true;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package ch.isageek.ads.p7;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class ProbingModeComparison {
+
+    private static final int NUMBER_OF_ELEMENTS = 50_000;
+
+    @Test
+    public void compareClustering() {
+        System.out.println(String.format("Adding %d elements and looking up every element and a missing one", NUMBER_OF_ELEMENTS));
+        compare("Consecutive hashcodes", i -> new WeakHash(i, i));
+        compare("Hashcodes with multiples of 1024", i -> new WeakHash(i, i * 1024));
+        // The hashcode of the elements in ExerciseD: (2 * value + 5) % 11 folded to bigger tables
+        compare("ExerciseD hashcodes", i -> new WeakHash(i, (2 * i + 5) % 11 + 11 * (i / 11) * 64));
+    }
+
+    private void compare(String name, IntFunction<WeakHash> generator) {
+        List<WeakHash> elements = IntStream.range(0, NUMBER_OF_ELEMENTS).mapToObj(generator).collect(Collectors.toList());
+        List<WeakHash> missing = IntStream.range(NUMBER_OF_ELEMENTS, 2 * NUMBER_OF_ELEMENTS).mapToObj(generator).collect(Collectors.toList());
+        System.out.println(name);
+        System.out.println("Mode\tDuration(ms)\tStatistics");
+        for (AdsHashTable.ProbingMode mode : AdsHashTable.ProbingMode.values()) {
+            AdsHashTable<WeakHash> hashTable = new AdsHashTable<>(mode);
+            long start = System.currentTimeMillis();
+            hashTable.addAll(elements);
+            elements.forEach(hashTable::contains);
+            missing.forEach(hashTable::contains);
+            long duration = System.currentTimeMillis() - start;
+            System.out.println(String.format("%s\t%d\t%s", mode, duration, hashTable.getStatistics()));
+        }
+    }
+
+    private static class WeakHash {
+        private final int value;
+        private final int hash;
+
+        WeakHash(int value, int hash) {
+            this.value = value;
+            this.hash = hash;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof WeakHash && ((WeakHash) obj).value == value;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package ch.isageek.ads.p7;
+
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.*;
+
+public class ProbingModeTest {
+
+    // Multiples of the table length, their mixed hashcodes fall into distinct buckets
+    private final static List<Integer> KEYS = asList(0, 16, 32, 80, 96, 128, 144, 160);
+
+    @Test
+    public void testLinearSpreadPowerOfTwo() throws Exception {
+        AdsHashTable<Integer> hashTable = new AdsHashTable<>(10, AdsHashTable.ProbingMode.LINEAR_SPREAD);
+        hashTable.setLoadFactorForResize(1);
+
+        hashTable.addAll(KEYS);
+
+        Field table = AdsHashTable.class.getDeclaredField("table");
+        table.setAccessible(true);
+        assertEquals(16, ((Object[]) table.get(hashTable)).length);
+        assertEquals(0, hashTable.getStatistics().getResizeCount());
+        // Every key was placed in its first bucket
+        assertEquals(KEYS.size(), hashTable.getStatistics().getInsertProbeHistogram()[0]);
+        KEYS.forEach(key -> assertTrue(hashTable.contains(key)));
+    }
+
+    @Test
+    public void testLinearClustersMultiples() {
+        AdsHashTable<Integer> hashTable = new AdsHashTable<>(16, AdsHashTable.ProbingMode.LINEAR);
+        hashTable.setLoadFactorForResize(1);
+
+        hashTable.addAll(KEYS);
+
+        // Without mixing all keys start in bucket 0
+        assertEquals(1, hashTable.getStatistics().getInsertProbeHistogram()[0]);
+        assertEquals(KEYS.size(), hashTable.getStatistics().getMaxClusterLength());
+    }
+
+    @Test
+    public void testTableSize() {
+        assertEquals(1, AdsHashTable.ProbingMode.LINEAR_SPREAD.tableSize(1));
+        assertEquals(16, AdsHashTable.ProbingMode.LINEAR_SPREAD.tableSize(16));
+        assertEquals(32, AdsHashTable.ProbingMode.LINEAR_SPREAD.tableSize(17));
+        assertEquals(17, AdsHashTable.ProbingMode.LINEAR.tableSize(17));
+    }
+}
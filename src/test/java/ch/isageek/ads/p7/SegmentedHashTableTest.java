@@ -0,0 +1,68 @@
+package ch.isageek.ads.p7;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.*;
+
+@RunWith(Parameterized.class)
+public class SegmentedHashTableTest {
+
+    private AdsHashTable.ProbingMode probingMode;
+
+    public SegmentedHashTableTest(AdsHashTable.ProbingMode probingMode) {
+        this.probingMode = probingMode;
+    }
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<AdsHashTable.ProbingMode> getModes() {
+        return asList(AdsHashTable.ProbingMode.values());
+    }
+
+    @Test
+    public void testAddContainsRemove() {
+        HashTable<Integer> hashTable = new SegmentedHashTable<>(4, 1, probingMode);
+        assertTrue(hashTable.isEmpty());
+
+        hashTable.add(-3);
+        assertTrue(hashTable.contains(-3));
+        assertFalse(hashTable.contains(3));
+        assertEquals(1, hashTable.size());
+
+        assertTrue(hashTable.remove(-3));
+        assertFalse(hashTable.contains(-3));
+        assertTrue(hashTable.isEmpty());
+    }
+
+    @Test
+    public void testAddManyElements() {
+        SegmentedHashTable<Integer> hashTable = new SegmentedHashTable<>(10, 1, probingMode);
+        IntStream.range(0, 20_000).forEach(hashTable::add);
+        IntStream.range(0, 20_000).filter(i -> i % 2 == 0).forEach(hashTable::remove);
+
+        assertEquals(16, hashTable.getSegmentCount());
+        assertEquals(10_000, hashTable.longSize());
+        assertEquals(10_000, hashTable.stream().filter(Objects::nonNull).count());
+        IntStream.range(0, 20_000).forEach(i -> assertEquals(i % 2 != 0, hashTable.contains(i)));
+    }
+
+    @Test
+    public void testSingleSegment() {
+        SegmentedHashTable<Integer> hashTable = new SegmentedHashTable<>(1, 1, probingMode);
+        IntStream.range(-500, 500).forEach(hashTable::add);
+
+        assertEquals(1, hashTable.getSegmentCount());
+        IntStream.range(-500, 500).forEach(i -> assertTrue(hashTable.contains(i)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidSegments() {
+        new SegmentedHashTable<Integer>(0, 1, probingMode);
+    }
+}